@@ -0,0 +1,134 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Output pipeline for the sliding puzzle: text handed to print is queued and
+// written by a background thread that owns the buffered file writer, so the
+// caller never waits on disk or terminal I/O
+public class PathWriter {
+    private static final int CAPACITY = 256; // queued pieces of text
+    private static final String END = new String("end"); // end of output marker
+
+    private final String fileName; // output file
+    private final boolean echo; // also print to console
+    private final BlockingQueue<String> queue; // text waiting to be written
+    private final Thread thread; // writer thread
+    private IOException error; // first error seen by writer thread
+
+    // Constructor of PathWriter class
+    public PathWriter(String fileName, boolean echo) {
+        this.fileName = fileName;
+        this.echo = echo;
+        this.queue = new ArrayBlockingQueue<String>(CAPACITY);
+
+        this.thread = new Thread(this::run, "path-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    // Method queues text for output
+    public void print(String text) {
+        try {
+            queue.put(text); // waits only if writer thread is far behind
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Method writes remaining text and waits for writer thread to finish
+    public void close() {
+        print(END);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (error != null)
+            error.printStackTrace();
+    }
+
+    // Method run by writer thread
+    private void run() {
+        ArrayList<String> batch = new ArrayList<String>();
+        Writer file = null;
+        Writer console = echo ? new BufferedWriter(new OutputStreamWriter(System.out)) : null;
+
+        try {
+            file = new BufferedWriter(new FileWriter(fileName)); // opened by writer thread
+        } catch (IOException e) {
+            error = e;
+        }
+
+        try {
+            boolean done = false;
+            while (!done) {
+                batch.add(queue.take()); // wait for text
+                queue.drainTo(batch); // then take everything queued
+
+                for (String text : batch) {
+                    if (text == END) {
+                        done = true;
+                        break;
+                    }
+
+                    file = write(file, text);
+                    console = write(console, text);
+                }
+                batch.clear();
+
+                file = flush(file); // flush once per batch
+                console = flush(console);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (file != null) {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+        }
+    }
+
+    // Method writes text to a writer, returns null once the writer has failed
+    private Writer write(Writer out, String text) {
+        if (out == null)
+            return null;
+
+        try {
+            out.write(text);
+            return out;
+        } catch (IOException e) {
+            fail(e);
+            return null;
+        }
+    }
+
+    // Method flushes a writer, returns null once the writer has failed
+    private Writer flush(Writer out) {
+        if (out == null)
+            return null;
+
+        try {
+            out.flush();
+            return out;
+        } catch (IOException e) {
+            fail(e);
+            return null;
+        }
+    }
+
+    // Method remembers first error seen by writer thread
+    private void fail(IOException e) {
+        if (error == null)
+            error = e;
+    }
+}
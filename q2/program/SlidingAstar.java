@@ -14,10 +14,12 @@
  * 
  * Input:
  * - Initial board state: An nxn matrix
- * - Goal board state: Calculated by the program based on sorting criteria.
+ * - Goal board state: Calculated by the program based on sorting criteria. Several acceptable goal
+ *   layouts can be given; the search stops at whichever is reached first.
  * 
  * Output:
  * - Sequence of moves leading to the goal state, displayed on the console and written to a specified output file.
+ *   Output goes through a PathWriter, which buffers it on a background thread; console echo is optional.
  * 
  * Constraints:
  * - Only neighboring tiles (horizontal or vertical) can be swapped.
@@ -26,14 +28,23 @@
  * Features:
  * - A* search algorithm implementation.
  * - Heuristic function based on taxi distances for estimating the cost to reach the goal state.
- * - Open and closed lists for keeping track of explored and unexplored board states.
+ * - Lower bound from tile class counts on each side of every row and column boundary, combined with
+ *   the taxi distance heuristic by max. With several goals the heuristic is the minimum over goals.
+ * - Unsolvable boards (no R/G tiles, or a single R/G tile with the wrong parity) are rejected before
+ *   the search starts, and moves that undo the previous move are never generated.
+ * - Open list of unexplored boards, indexed by board key, and a closed set holding only the keys
+ *   of explored boards, so a board is dropped once it has been expanded.
+ * - Compact path store: expanded boards keep only a move code and a parent index, and the
+ *   solution path is rebuilt by replaying the moves forward from the initial board.
  * 
  */
 
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 
 //This program solves sliding puzzle using A* algorithm
 public class SlidingAstar {
@@ -43,7 +54,8 @@ public class SlidingAstar {
         private int gvalue; // path cost
         private int hvalue; // heuristic value
         private int fvalue; // gvalue plus hvalue
-        private Board parent; // parent board
+        private int parent; // index of parent in path store
+        private int move; // move code that created board
 
         // Constructor of board class
         private Board(char[][] array, int size) {
@@ -57,80 +69,173 @@ public class SlidingAstar {
             this.hvalue = 0; // fvalue are all 0
             this.fvalue = 0;
 
-            this.parent = null; // no parent
+            this.parent = -1; // no parent
+            this.move = -1; // and no move
         }
     }
 
     // variables of a Sliding aStar
     private Board initial; // initial board
-    private Board goal; // goal board
+    private Board[] goals; // acceptable goal boards
+    private HashSet<String> goalKeys; // keys of goal boards
     private int size; // board size
-    private PrintWriter writer;
+    private int[][][] goalRows; // per goal, tile class counts in rows 0..r
+    private int[][][] goalColumns; // per goal, tile class counts in columns 0..c
+
+    private static final int CLASSES = 12; // digits 0-9, R, G
+    private String outputFileName; // output file
+    private boolean echo; // echo output to console
+    private PathWriter writer; // output pipeline, created by solve
+    private StringBuilder buffer; // in-memory output used instead of writer
+    private long deadline = Long.MAX_VALUE; // System.nanoTime() when search gives up
+    private boolean timedOut; // search stopped at deadline
+
+    // path store: one entry per expanded board
+    private int[] pathParents = new int[1024]; // parent index of each entry
+    private int[] pathMoves = new int[1024]; // move code of each entry
+    private int pathSize = 0; // number of entries
 
     // Constructor of SlidingAstar class
     public SlidingAstar(char[][] initial, char[][] goal, int size, String outputFileName) {
+        this(initial, goal, size, outputFileName, true);
+    }
+
+    // Constructor of SlidingAstar class with optional console echo
+    public SlidingAstar(char[][] initial, char[][] goal, int size, String outputFileName, boolean echo) {
+        this(initial, Arrays.asList(new char[][][] { goal }), size, outputFileName, echo);
+    }
+
+    // Constructor of SlidingAstar class with several acceptable goals
+    public SlidingAstar(char[][] initial, List<char[][]> goals, int size, String outputFileName, boolean echo) {
         this.size = size; // set size of board
         this.initial = new Board(initial, size); // create initial board
-        this.goal = new Board(goal, size); // create goal board
+        this.outputFileName = outputFileName; // output file is opened by solve
+        this.echo = echo;
 
-        try {
-            this.writer = new PrintWriter(new FileWriter(outputFileName));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        ArrayList<Board> list = new ArrayList<Board>(); // create goal boards
+        for (char[][] goal : goals)
+            list.add(new Board(goal, size));
+        setGoals(list);
+    }
 
+    // Method sets goal boards and precomputes their keys and class counts
+    private void setGoals(List<Board> list) {
+        goals = list.toArray(new Board[0]);
+        goalKeys = new HashSet<String>();
+        goalRows = new int[goals.length][size][]; // class counts on each side
+        goalColumns = new int[goals.length][size][]; // of each boundary
+
+        for (int g = 0; g < goals.length; g++) {
+            goalKeys.add(key(goals[g]));
+
+            int[] rows = new int[CLASSES];
+            int[] columns = new int[CLASSES];
+            for (int r = 0; r < size; r++) {
+                for (int k = 0; k < size; k++) {
+                    rows[classOf(goals[g].array[r][k])]++;
+                    columns[classOf(goals[g].array[k][r])]++;
+                }
+                goalRows[g][r] = rows.clone();
+                goalColumns[g][r] = columns.clone();
+            }
+        }
     }
 
     // Method solves sliding puzzle
     public void solve() {
+        writer = new PathWriter(outputFileName, echo); // start output pipeline
+        try {
+            if (!search())
+                System.out.println("no solution");
+        } finally {
+            writer.close(); // write remaining output
+        }
+    }
+
+    // Method solves sliding puzzle and appends path to a buffer instead of output file,
+    // returns false if there is no solution or deadline (System.nanoTime()) passes first
+    public boolean solve(StringBuilder out, long deadline) {
+        this.buffer = out;
+        this.deadline = deadline;
+        return search();
+    }
+
+    // Method tells whether last solve stopped at its deadline
+    public boolean timedOut() {
+        return timedOut;
+    }
+
+    // Method searches for a path to goal with A*, returns whether one was found
+    private boolean search() {
 
         LinkedList<Board> openList = new LinkedList<Board>(); // open list
-        LinkedList<Board> closedList = new LinkedList<Board>();// closed list
+        HashMap<String, Board> openKeys = new HashMap<String, Board>(); // open boards by key
+        HashSet<String> closedKeys = new HashSet<String>(); // keys of expanded boards
+
+        ArrayList<Board> reachable = new ArrayList<Board>(); // drop goals that cannot be
+        for (Board goal : goals) // reached by any sequence of swaps
+            if (solvable(initial, goal))
+                reachable.add(goal);
+
+        if (reachable.isEmpty())
+            return false;
+        setGoals(reachable);
 
         openList.addFirst(initial); // add initial board to open list
+        openKeys.put(key(initial), initial);
 
         while (!openList.isEmpty()) {// while open list has more boards
 
+            if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) { // give up at deadline
+                timedOut = true;
+                return false;
+            }
+
             int best = selectBest(openList); // select best board
 
             Board board = openList.remove(best); // remove board
 
-            closedList.addLast(board); // add board to closed list
+            String boardKey = key(board);
+            openKeys.remove(boardKey);
+            closedKeys.add(boardKey); // keep only key of board as closed
+
+            int node = record(board.parent, board.move); // remember how board was reached
 
             if (goal(board)) { // if board is goal
 
                 displayPath(board); // display path to goal
-                return; // stop search
+                return true; // stop search
             }
 
             else { // if board is not goal
 
-                LinkedList<Board> children = generate(board);// create children
+                LinkedList<Board> children = generate(board, node);// create children
 
                 for (int i = 0; i < children.size(); i++) { // for each child
                     Board child = children.get(i);
+                    String childKey = key(child);
 
-                    if (!exists(child, closedList)) // if child is not in closed list
+                    if (!closedKeys.contains(childKey)) // if child is not in closed set
                     {
-                        if (!exists(child, openList))// if child is not in open list
+                        Board old = openKeys.get(childKey);
+                        if (old == null) { // if child is not in open list
                             openList.addLast(child); // add to open list
-                        else { // if child is already in open list
-                            int index = find(child, openList);
-                            if (child.fvalue < openList.get(index).fvalue) { // if fvalue of new copy
-                                openList.remove(index); // is less than old copy
-                                openList.addLast(child); // replace old copy
-                            } // with new copy
+                            openKeys.put(childKey, child);
+                        } else if (child.fvalue < old.fvalue) { // if fvalue of new copy
+                            openList.remove(old); // is less than old copy
+                            openList.addLast(child); // replace old copy
+                            openKeys.put(childKey, child); // with new copy
                         }
                     }
                 }
             }
         }
 
-        System.out.println("no solution"); // no solution if there are no more board in open list
+        return false; // no solution if there are no more board in open list
     }
 
     // Method creates children of a board
-    private LinkedList<Board> generate(Board board) {
+    private LinkedList<Board> generate(Board board, int node) {
 
         // creates children linkedlist
         LinkedList<Board> children = new LinkedList<>();
@@ -141,8 +246,8 @@ public class SlidingAstar {
                 // Check all four directions for possible swaps
                 char[] directions = { 'N', 'S', 'E', 'W' };
                 for (char d : directions) {
-                    if (isValidSwap(board, d, i, j)) {
-                        Board child = createChild(board, i, j, d);
+                    if (isValidSwap(board, d, i, j) && !undoes(board.move, i, j, d)) {
+                        Board child = createChild(board, node, i, j, d);
                         if (child != null) { // Ensure the child is valid
                             children.addLast(child);
                         }
@@ -155,7 +260,7 @@ public class SlidingAstar {
     }
 
     // given direction
-    private Board createChild(Board board, int i, int j, char direction) {
+    private Board createChild(Board board, int node, int i, int j, char direction) {
         // First, make a deep copy of the board to create a new child
         Board child = copy(board);
 
@@ -184,10 +289,11 @@ public class SlidingAstar {
 
             // After the swap, update the gvalue and parent
             child.gvalue = board.gvalue + 1; // Increment the path cost by 1
-            child.parent = board; // Set the current board as parent
+            child.parent = node; // Set the current board as parent
+            child.move = encode(i, j, direction); // Remember the move
 
             // Recalculate the heuristic value for the child
-            child.hvalue = heuristic_D(child); // Call your heuristic function
+            child.hvalue = heuristic(child); // Call your heuristic function
             // Update the fvalue (total cost)
             child.fvalue = child.gvalue + child.hvalue;
         }
@@ -195,8 +301,184 @@ public class SlidingAstar {
         return child;
     }
 
+    // Method adds an entry to path store and returns its index
+    private int record(int parent, int move) {
+        if (pathSize == pathParents.length) { // grow store when full
+            pathParents = Arrays.copyOf(pathParents, 2 * pathSize);
+            pathMoves = Arrays.copyOf(pathMoves, 2 * pathSize);
+        }
+
+        pathParents[pathSize] = parent;
+        pathMoves[pathSize] = move;
+        return pathSize++;
+    }
+
+    // Method packs cell index and direction into a move code
+    private int encode(int i, int j, char direction) {
+        return (i * size + j) * 4 + "NSEW".indexOf(direction);
+    }
+
+    // Method applies a move code to a board
+    private void apply(Board board, int move) {
+        int cell = move / 4;
+        int i = cell / size, j = cell % size;
+        int swapI = i, swapJ = j;
+        switch ("NSEW".charAt(move % 4)) {
+            case 'N':
+                swapI = i - 1;
+                break;
+            case 'S':
+                swapI = i + 1;
+                break;
+            case 'E':
+                swapJ = j + 1;
+                break;
+            case 'W':
+                swapJ = j - 1;
+                break;
+        }
+
+        char temp = board.array[i][j];
+        board.array[i][j] = board.array[swapI][swapJ];
+        board.array[swapI][swapJ] = temp;
+    }
+
+    // Method decides whether a move swaps back the pair of tiles swapped by a previous move
+    private boolean undoes(int previous, int i, int j, char direction) {
+        if (previous < 0)
+            return false;
+
+        return pair(previous) == pair(encode(i, j, direction));
+    }
+
+    // Method returns the unordered pair of cells swapped by a move code
+    private int pair(int move) {
+        int cell = move / 4;
+        int other = cell;
+        switch ("NSEW".charAt(move % 4)) {
+            case 'N':
+                other = cell - size;
+                break;
+            case 'S':
+                other = cell + size;
+                break;
+            case 'E':
+                other = cell + 1;
+                break;
+            case 'W':
+                other = cell - 1;
+                break;
+        }
+
+        return Math.min(cell, other) * size * size + Math.max(cell, other);
+    }
+
+    // Heuristic value is the smallest estimate over all goals
+    private int heuristic(Board board) {
+        int value = Integer.MAX_VALUE;
+        for (int g = 0; g < goals.length; g++)
+            value = Math.min(value, Math.max(heuristic_D(board, goals[g]), heuristic_C(board, g)));
+
+        return value;
+    }
+
+    // Heuristic value is the number of swaps that must cross each row and column boundary.
+    // A swap crosses exactly one boundary and moves at most one digit, so a boundary needs at
+    // least as many swaps as digits that must cross it, and at least half of all tiles that must
+    // cross it
+    private int heuristic_C(Board board, int g) {
+        int value = 0;
+        int[] rows = new int[CLASSES]; // class counts above boundary
+        int[] columns = new int[CLASSES]; // class counts left of boundary
+
+        for (int r = 0; r < size - 1; r++) {
+            for (int k = 0; k < size; k++) {
+                rows[classOf(board.array[r][k])]++;
+                columns[classOf(board.array[k][r])]++;
+            }
+            value += crossings(rows, goalRows[g][r]) + crossings(columns, goalColumns[g][r]);
+        }
+
+        return value;
+    }
+
+    // Method finds minimum number of swaps across a boundary from class counts on one side
+    private int crossings(int[] counts, int[] goalCounts) {
+        int digits = 0, colors = 0;
+        for (int c = 0; c < CLASSES; c++) {
+            int difference = Math.abs(counts[c] - goalCounts[c]);
+            if (c < 10)
+                digits += difference;
+            else
+                colors += difference;
+        }
+
+        return Math.max(digits, (digits + colors) / 2);
+    }
+
+    // Method maps a tile to its class: digits 0-9, R is 10, G is 11
+    private static int classOf(char tile) {
+        if (tile == 'R')
+            return 10;
+        if (tile == 'G')
+            return 11;
+        return tile - '0';
+    }
+
+    // Method decides whether a goal can be reached from a board. Swaps never change which tiles
+    // are on the board, so this only has to be checked once for the initial board
+    private boolean solvable(Board board, Board goal) {
+        int colors = 0, blank = -1, goalBlank = -1;
+        boolean[] seen = new boolean[10];
+        boolean distinct = true;
+
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < size; j++) {
+                char tile = board.array[i][j];
+                if (tile == 'R' || tile == 'G') {
+                    colors++;
+                    blank = i * size + j;
+                } else if (seen[tile - '0'])
+                    distinct = false;
+                else
+                    seen[tile - '0'] = true;
+
+                if (goal.array[i][j] == 'R' || goal.array[i][j] == 'G')
+                    goalBlank = i * size + j;
+            }
+
+        if (colors == 0) // digits cannot move at all
+            return identical(board, goal);
+
+        if (colors > 1 || !distinct) // enough freedom to reach any arrangement
+            return true;
+
+        // one R/G tile and distinct digits is the classic sliding puzzle: each swap is a
+        // transposition that moves the R/G tile one step, so permutation parity plus
+        // R/G tile distance parity cannot change
+        int[] target = new int[size * size]; // goal position of tile at each position
+        for (int p = 0; p < size * size; p++)
+            for (int q = 0; q < size * size; q++)
+                if (board.array[p / size][p % size] == goal.array[q / size][q % size]) {
+                    target[p] = q;
+                    break;
+                }
+
+        int cycles = 0;
+        boolean[] visited = new boolean[size * size];
+        for (int p = 0; p < size * size; p++)
+            if (!visited[p]) {
+                cycles++;
+                for (int q = p; !visited[q]; q = target[q])
+                    visited[q] = true;
+            }
+
+        int distance = Math.abs(blank / size - goalBlank / size) + Math.abs(blank % size - goalBlank % size);
+        return (size * size - cycles + distance) % 2 == 0;
+    }
+
     // Heuristic value is the sum of taxi distances of misplaced values
-    private int heuristic_D(Board board) {
+    private int heuristic_D(Board board, Board goal) {
         // initial heuristic value
         int value = 0;
 
@@ -248,27 +530,18 @@ public class SlidingAstar {
         return new Board(board.array, size);
     }
 
-    // Method decides whether a board is goal
+    // Method decides whether a board is one of the goals
     private boolean goal(Board board) {
-        return identical(board, goal); // compare board with goal
+        return goalKeys.contains(key(board)); // look up board in goal keys
     }
 
-    // Method decides whether a board exists in a list
-    private boolean exists(Board board, LinkedList<Board> list) {
-        for (int i = 0; i < list.size(); i++) // compare board with each
-            if (identical(board, list.get(i))) // element of list
-                return true;
-
-        return false;
-    }
-
-    // Method finds location of a board in a list
-    private int find(Board board, LinkedList<Board> list) {
-        for (int i = 0; i < list.size(); i++) // compare board with each
-            if (identical(board, list.get(i))) // element of list
-                return i;
+    // Method makes a hash key of a board from its tiles in row-major order
+    private String key(Board board) {
+        char[] tiles = new char[size * size];
+        for (int i = 0; i < size; i++)
+            System.arraycopy(board.array[i], 0, tiles, i * size, size);
 
-        return -1;
+        return new String(tiles);
     }
 
     // Method decides whether two boards are identical
@@ -283,19 +556,27 @@ public class SlidingAstar {
 
     // Method displays path from initial to current board
     private void displayPath(Board board) {
-        LinkedList<Board> list = new LinkedList<Board>();
+        LinkedList<Integer> moves = new LinkedList<Integer>();
 
-        Board pointer = board; // start at current board
+        if (board.move >= 0) // start at current board
+            moves.addFirst(board.move);
 
-        while (pointer != null) // go back towards initial board
+        int pointer = board.parent;
+        while (pointer >= 0) // go back towards initial board
         {
-            list.addFirst(pointer); // add boards to beginning of list
+            if (pathMoves[pointer] >= 0) // add moves to beginning of list
+                moves.addFirst(pathMoves[pointer]);
+
+            pointer = pathParents[pointer]; // keep going back
+        }
 
-            pointer = pointer.parent; // keep going back
+        // replay moves forward from initial board
+        Board current = copy(initial);
+        displayBoard(current);
+        for (int move : moves) {
+            apply(current, move);
+            displayBoard(current);
         }
-        // print boards in list
-        for (int i = 0; i < list.size(); i++)
-            displayBoard(list.get(i));
     }
 
     // Method displays baord
@@ -322,11 +603,11 @@ public class SlidingAstar {
         }
         sb.append("\n");
 
-        // Print to console
-        System.out.print(sb.toString());
-        // Write to file
-        writer.print(sb.toString());
-        writer.flush(); // Ensure data is written
+        // Queue for file and console
+        if (buffer != null)
+            buffer.append(sb);
+        else
+            writer.print(sb.toString());
     }
 
     private boolean isValidSwap(Board board, char direction, int i, int j) {
@@ -0,0 +1,232 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Non-interactive driver: solves a stream of puzzles from one input file (or stdin)
+// on a fixed pool of workers and writes the results in input order.
+//
+// usage: java SlidingAstarDriver <input file or -> <output file or -> [workers] [timeout ms] [any]
+//
+// Puzzles use the tester's format (size, then size rows of tiles) and are separated by
+// blank lines. With "any", every goal layout from SlidingAstarTester.goalFamily is accepted.
+public class SlidingAstarDriver {
+
+    // result of one puzzle
+    private static class Result {
+        private final int index; // position in input
+        private final String text; // output for puzzle
+        private final long latency; // nanoseconds from submit to finish
+
+        private Result(int index, String text, long latency) {
+            this.index = index;
+            this.text = text;
+            this.latency = latency;
+        }
+    }
+
+    private static final Result END = new Result(-1, null, 0); // end of input marker
+    private static volatile int pendingTotal; // number of puzzles read, set at end of input
+    private static volatile boolean writeFailed; // output thread could not write
+    private static final int MARK_LIMIT = 1 << 16; // longest line looked ahead at
+
+    // main method for driver
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.out.println("usage: java SlidingAstarDriver <input|-> <output|-> [workers] [timeout ms] [any]");
+            return;
+        }
+
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long timeout = args.length > 3 ? Long.parseLong(args[3]) : 10000;
+        boolean anyLayout = args.length > 4 && args[4].equals("any");
+
+        BufferedReader in = new BufferedReader(args[0].equals("-") ? new InputStreamReader(System.in)
+                : new FileReader(args[0]));
+        Writer out = new BufferedWriter(args[1].equals("-") ? new OutputStreamWriter(System.out)
+                : new FileWriter(args[1]));
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        Semaphore window = new Semaphore(4 * workers); // puzzles read but not yet written
+        BlockingQueue<Result> finished = new LinkedBlockingQueue<Result>();
+        int[] counts = new int[4]; // solved, no solution, timed out, failed
+        ArrayList<Long> latencies = new ArrayList<Long>();
+
+        // output thread writes finished results in input order
+        Thread output = new Thread(() -> {
+            HashMap<Integer, Result> pending = new HashMap<Integer, Result>(); // reorder buffer
+            int next = 0;
+            int total = -1;
+            try {
+                while (total < 0 || next < total) {
+                    Result result = finished.take();
+                    if (result == END) {
+                        total = pendingTotal; // set before marker was queued
+                        continue;
+                    }
+                    pending.put(result.index, result);
+
+                    while (pending.containsKey(next)) { // write every result that is now in order
+                        Result ready = pending.remove(next);
+                        out.write(ready.text);
+                        latencies.add(ready.latency);
+                        next++;
+                        window.release();
+                    }
+                }
+                out.flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+                writeFailed = true; // let main stop reading
+                window.release(4 * workers);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "driver-output");
+        output.start();
+
+        long start = System.nanoTime();
+        int index = 0;
+        String[] puzzle;
+        while ((puzzle = next(in)) != null) {
+            window.acquire(); // keep reorder buffer bounded
+            if (writeFailed)
+                break;
+            final int number = index++;
+            final String[] lines = puzzle;
+            final long submitted = System.nanoTime();
+
+            pool.execute(() -> {
+                String text = "Instance " + (number + 1) + ": failed\n\n";
+                try {
+                    text = solve(number, lines, anyLayout, System.nanoTime() + timeout * 1000000L, counts);
+                } catch (Throwable e) { // any failure is reported for this instance only
+                    count(counts, 3);
+                    text = "Instance " + (number + 1) + ": failed (" + e + ")\n\n";
+                } finally { // output thread waits for every index
+                    finished.add(new Result(number, text, System.nanoTime() - submitted));
+                }
+            });
+        }
+        in.close();
+
+        if (writeFailed) { // nothing more can be written
+            pool.shutdownNow();
+            System.err.println("Output failed, stopped after " + index + " instances");
+            System.exit(1);
+        }
+
+        pendingTotal = index;
+        finished.add(END);
+        output.join();
+        pool.shutdown();
+        out.close();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Collections.sort(latencies);
+        PrintStream report = args[1].equals("-") ? System.err : System.out;
+        report.println("Instances: " + index + " (solved " + counts[0] + ", no solution " + counts[1]
+                + ", timed out " + counts[2] + ", failed " + counts[3] + ")");
+        report.printf("Throughput: %.1f instances/sec%n", index / seconds);
+        report.printf("Latency: p50 %.1f ms, p99 %.1f ms%n", percentile(latencies, 50), percentile(latencies, 99));
+    }
+
+    // method solves one puzzle and returns its output
+    private static String solve(int number, String[] lines, boolean anyLayout, long deadline, int[] counts) {
+        StringBuilder text = new StringBuilder();
+        text.append("Instance ").append(number + 1).append(": ");
+
+        int size;
+        char[][] initial;
+        try {
+            size = Integer.parseInt(lines[0].trim());
+            initial = new char[size][size];
+            for (int i = 0; i < size; i++) {
+                String[] tokens = lines[i + 1].trim().split("\\s+"); // Split by spaces
+                for (int j = 0; j < size; j++)
+                    initial[i][j] = tokens[j].charAt(0); // Assign characters directly
+            }
+        } catch (RuntimeException e) {
+            count(counts, 3);
+            return text.append("failed (bad input)\n\n").toString();
+        }
+
+        List<char[][]> goals = anyLayout ? SlidingAstarTester.goalFamily(initial, size)
+                : Arrays.asList(new char[][][] { SlidingAstarTester.goal(initial, size, false, true) });
+        SlidingAstar s = new SlidingAstar(initial, goals, size, null, false);
+
+        StringBuilder path = new StringBuilder();
+        if (s.solve(path, deadline)) {
+            count(counts, 0);
+            text.append("solved\n\n").append(path);
+        } else if (s.timedOut()) {
+            count(counts, 2);
+            text.append("timed out\n\n");
+        } else {
+            count(counts, 1);
+            text.append("no solution\n\n");
+        }
+
+        return text.toString();
+    }
+
+    // method reads the lines of next puzzle, skipping blank lines, or returns null at end
+    private static String[] next(BufferedReader in) throws IOException {
+        String line = in.readLine();
+        while (line != null && line.trim().isEmpty())
+            line = in.readLine();
+        if (line == null)
+            return null;
+
+        ArrayList<String> lines = new ArrayList<String>();
+        lines.add(line);
+
+        int size;
+        try {
+            size = Integer.parseInt(line.trim());
+        } catch (NumberFormatException e) {
+            skipPuzzle(in); // bad size line: the puzzle fails when it is solved,
+            return lines.toArray(new String[0]); // its board lines are not read as puzzles
+        }
+
+        while (lines.size() <= size && (line = in.readLine()) != null)
+            if (!line.trim().isEmpty())
+                lines.add(line);
+
+        return lines.toArray(new String[0]);
+    }
+
+    // method skips lines up to the next size line after a blank line, which is left unread
+    private static void skipPuzzle(BufferedReader in) throws IOException {
+        boolean blank = false;
+        while (true) {
+            in.mark(MARK_LIMIT);
+            String line = in.readLine();
+            if (line == null)
+                return;
+
+            if (line.trim().isEmpty())
+                blank = true;
+            else if (blank && line.trim().matches("\\d+")) {
+                in.reset(); // start of next puzzle
+                return;
+            } else
+                blank = false;
+        }
+    }
+
+    // method counts an outcome
+    private static void count(int[] counts, int outcome) {
+        synchronized (counts) {
+            counts[outcome]++;
+        }
+    }
+
+    // method finds a percentile of sorted latencies in milliseconds
+    private static double percentile(List<Long> sorted, int p) {
+        if (sorted.isEmpty())
+            return 0;
+
+        int index = (int) Math.ceil(p / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1e6;
+    }
+}
@@ -13,12 +13,14 @@ public class SlidingAstarTester {
             System.out.print("Enter output file name: ");
             String outputFileName = name.nextLine();
 
+            System.out.print("Accept any goal layout (y/n): ");
+            boolean anyLayout = name.hasNextLine() && name.nextLine().trim().equalsIgnoreCase("y");
+
             File file = new File(fileName);
             Scanner in = new Scanner(file);
             int size = in.nextInt();
 
             char[][] initial = new char[size][size];
-            char[][] goal = new char[size][size];
 
             in.nextLine();
             in.nextLine();
@@ -31,48 +33,10 @@ public class SlidingAstarTester {
                 }
             }
 
-            // find goal board setup
-            ArrayList<Integer> nums = new ArrayList<>();
-            int reds = 0;
-            int greens = 0;
-            // goal is to have a sorted list of numbers followed by 'R' and 'G'
-            for (int i = 0; i < size; i++) {
-                for (int j = 0; j < size; j++) {
-                    if (Character.isDigit(initial[i][j])) {
-                        nums.add(initial[i][j] - '0'); // Convert char to integer
-                    } else if (initial[i][j] == 'R') {
-                        reds++;
-                    } else if (initial[i][j] == 'G') {
-                        greens++;
-                    }
-                }
-            }
-
-            // Sort the list of numbers
-            Collections.sort(nums);
-
-            // fill the goal bord from array and count of reds and greens
-            int counter = 0; // set counter
-            for (int i = 0; i < size; i++) {
-                for (int j = 0; j < size; j++) {
-                    if (counter < nums.size()) {
-                        goal[i][j] = (char) ('0' + nums.get(counter)); // Convert integer to char
-                        counter++;
-                    } else {
-                        // Assign remaining 'R' and 'G'
-                        if (reds > 0) {
-                            goal[i][j] = 'R';
-                            reds--;
-                        } else if (greens > 0) {
-                            goal[i][j] = 'G';
-                            greens--;
-                        }
-                    }
-                }
-            }
-
-            // create slidingAstar object given initial board, goal board and size
-            SlidingAstar s = new SlidingAstar(initial, goal, size, outputFileName);
+            // create slidingAstar object given initial board, goal boards and size
+            List<char[][]> goals = anyLayout ? goalFamily(initial, size)
+                    : Arrays.asList(new char[][][] { goal(initial, size, false, true) });
+            SlidingAstar s = new SlidingAstar(initial, goals, size, outputFileName, true);
             s.solve();
 
             name.close();
@@ -84,4 +48,69 @@ public class SlidingAstarTester {
         }
 
     }
+
+    // method finds all acceptable goal layouts: row-major or column-major numbers,
+    // followed by R then G or by G then R
+    public static List<char[][]> goalFamily(char[][] initial, int size) {
+        List<char[][]> goals = new ArrayList<>();
+        for (boolean columnMajor : new boolean[] { false, true })
+            for (boolean redFirst : new boolean[] { true, false }) {
+                char[][] goal = goal(initial, size, columnMajor, redFirst);
+
+                boolean duplicate = false; // layouts can coincide, e.g. with no G tiles
+                for (char[][] other : goals)
+                    duplicate |= Arrays.deepEquals(goal, other);
+                if (!duplicate)
+                    goals.add(goal);
+            }
+
+        return goals;
+    }
+
+    // method finds goal board setup: sorted numbers, then the R and G tiles
+    public static char[][] goal(char[][] initial, int size, boolean columnMajor, boolean redFirst) {
+        ArrayList<Integer> nums = new ArrayList<>();
+        int reds = 0;
+        int greens = 0;
+        // goal is to have a sorted list of numbers followed by 'R' and 'G'
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (Character.isDigit(initial[i][j])) {
+                    nums.add(initial[i][j] - '0'); // Convert char to integer
+                } else if (initial[i][j] == 'R') {
+                    reds++;
+                } else if (initial[i][j] == 'G') {
+                    greens++;
+                }
+            }
+        }
+
+        // Sort the list of numbers
+        Collections.sort(nums);
+
+        // fill the goal bord from array and count of reds and greens
+        char[][] goal = new char[size][size];
+        int counter = 0; // set counter
+        for (int a = 0; a < size; a++) {
+            for (int b = 0; b < size; b++) {
+                int i = columnMajor ? b : a;
+                int j = columnMajor ? a : b;
+                if (counter < nums.size()) {
+                    goal[i][j] = (char) ('0' + nums.get(counter)); // Convert integer to char
+                    counter++;
+                } else {
+                    // Assign remaining 'R' and 'G'
+                    if (redFirst ? reds > 0 : greens == 0) {
+                        goal[i][j] = 'R';
+                        reds--;
+                    } else {
+                        goal[i][j] = 'G';
+                        greens--;
+                    }
+                }
+            }
+        }
+
+        return goal;
+    }
 }
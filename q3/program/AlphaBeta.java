@@ -1,58 +1,817 @@
 package program;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 
 //This program plays tic-tac game using min-max, depth limit,
 //board evaluation, and alpha-beta pruning
-public class AlphaBeta
+public class AlphaBeta implements Engine
 {
     private final char EMPTY = ' ';                //empty slot
     private final char COMPUTER = 'X';             //computer
     private final char PLAYER = '0';               //player
     private final int MIN = 0;                     //min level
     private final int MAX = 1;                     //max level
-    private final int MAX_DEPTH = 6;                   //depth limit
+    private final long MOVE_TIME = 1000;           //default time per move (ms)
+    private final int TABLE_SIZE = 1 << 20;        //transposition table entries
+    private final long SEED = 20240215;            //seed of zobrist keys
+    private final int THREAT_DEPTH = 8;            //most threats in a forced win sequence
+    private final int NEIGHBORHOOD = 2;            //default distance of moves from stones
+                                                   //when fewer than size in a row win
+    private final int ASPIRATION = 1;              //aspiration window half width per
+                                                   //board size (wins are 4*size when
+                                                   //whole lines win)
 
     //Board class (inner class)
+    //cell (i, j) is bit i*size+j; for size <= 8 each side fits in one long.
+    //Board also counts symbols in each line, so wins, draws, and open lines
+    //are known without scanning the board, and stones near each cell, so
+    //moves close to stones are known without scanning either
     private class Board
     {
-        private char[][] array;                    //board array
+        private long[] computer;                   //cells taken by computer
+        private long[] player;                     //cells taken by player
+        private long[] hashes;                     //zobrist key of board under each symmetry
+        private int[] computerCounts;              //computer symbols in each line
+        private int[] playerCounts;                //player symbols in each line
+        private int computerOpen;                  //lines with no player symbol
+        private int playerOpen;                    //lines with no computer symbol
+        private int computerLines;                 //lines full of computer symbols
+        private int playerLines;                   //lines full of player symbols
+        private int stones;                        //cells taken by either symbol
+        private int[] near;                        //stones within distance of each cell
+        private long[] neighbors;                  //cells with a stone within distance
 
         //Constructor of Board class
         private Board(int size)
         {
-            array = new char[size][size];          //create array
-                                             
-            for (int i = 0; i < size; i++)         //fill array with empty slots   
-                for (int j = 0; j < size; j++)
-                    array[i][j] = EMPTY;
+            computer = new long[words];            //all cells are empty
+            player = new long[words];
+
+            hashes = new long[8];                  //empty board has key 0
+
+            computerCounts = new int[lineCount];   //every line is empty
+            playerCounts = new int[lineCount];
+            computerOpen = playerOpen = lineCount;
+
+            near = new int[size*size];             //no cell is near a stone
+            neighbors = new long[words];
+        }
+
+        //Method returns symbol in a cell
+        private char get(int i, int j)
+        {
+            int cell = i*size + j;
+            if ((computer[cell >>> 6] & 1L << cell) != 0)
+                return COMPUTER;
+            if ((player[cell >>> 6] & 1L << cell) != 0)
+                return PLAYER;
+            return EMPTY;
+        }
+
+        //Method puts a symbol in an empty cell
+        private void place(int cell, char symbol)
+        {
+            long[] side = symbol == COMPUTER ? computer : player;
+            side[cell >>> 6] |= 1L << cell;
+            for (int t = 0; t < 8; t++)
+                hashes[t] ^= key(symmetry[t][cell], symbol);
+
+            stones++;
+            for (int c : neighborhood[cell])       //cells near cell are near a stone
+                if (near[c]++ == 0)
+                    neighbors[c >>> 6] |= 1L << c;
+
+            for (int k : cellLines[cell])          //only lines thru cell change
+                if (symbol == COMPUTER)
+                {
+                    if (computerCounts[k]++ == 0)  //line is closed to player
+                        playerOpen--;
+                    if (computerCounts[k] == inRow)
+                        computerLines++;
+                }
+                else
+                {
+                    if (playerCounts[k]++ == 0)    //line is closed to computer
+                        computerOpen--;
+                    if (playerCounts[k] == inRow)
+                        playerLines++;
+                }
+        }
+
+        //Method takes a symbol back out of a cell
+        private void remove(int cell, char symbol)
+        {
+            long[] side = symbol == COMPUTER ? computer : player;
+            side[cell >>> 6] &= ~(1L << cell);
+            for (int t = 0; t < 8; t++)
+                hashes[t] ^= key(symmetry[t][cell], symbol);
+
+            stones--;
+            for (int c : neighborhood[cell])
+                if (--near[c] == 0)
+                    neighbors[c >>> 6] &= ~(1L << c);
+
+            for (int k : cellLines[cell])          //undo counts of place
+                if (symbol == COMPUTER)
+                {
+                    if (computerCounts[k]-- == inRow)
+                        computerLines--;
+                    if (computerCounts[k] == 0)
+                        playerOpen++;
+                }
+                else
+                {
+                    if (playerCounts[k]-- == inRow)
+                        playerLines--;
+                    if (playerCounts[k] == 0)
+                        computerOpen++;
+                }
+        }
+
+        //Method copies another board into this board
+        private void copy(Board other)
+        {
+            System.arraycopy(other.computer, 0, computer, 0, words);
+            System.arraycopy(other.player, 0, player, 0, words);
+            System.arraycopy(other.hashes, 0, hashes, 0, 8);
+            System.arraycopy(other.computerCounts, 0, computerCounts, 0, computerCounts.length);
+            System.arraycopy(other.playerCounts, 0, playerCounts, 0, playerCounts.length);
+            computerOpen = other.computerOpen;
+            playerOpen = other.playerOpen;
+            computerLines = other.computerLines;
+            playerLines = other.playerLines;
+            stones = other.stones;
+            System.arraycopy(other.near, 0, near, 0, near.length);
+            System.arraycopy(other.neighbors, 0, neighbors, 0, words);
+        }
+
+        //Method finds the symmetry that takes board to its canonical form,
+        //the one with smallest key; symmetric boards share that form
+        private int canonical()
+        {
+            int best = 0;
+            for (int t = 1; t < 8; t++)
+                if (hashes[t] < hashes[best])
+                    best = t;
+            return best;
+        }
+    }
+
+    //Search class (inner class): a board and the move lists, killer moves,
+    //history scores, and statistics of one search thread
+    private class Search
+    {
+        private Board board;                       //copy of game board, changed in place
+        private int[][] moves;                     //empty cells of each ply
+        private int[][] scores;                    //ordering scores of moves of each ply
+        private int[][] killers;                   //two killer moves of each ply
+        private int[][] history;                   //history score per symbol and cell
+        private int depthLimit;                    //depth limit of current iteration
+        private SearchStats stats;                 //counts of current move; only nodes
+                                                   //when statistics are off
+
+        //Constructor of Search class
+        private Search()
+        {
+            board = new Board(size);
+            moves = new int[size*size + 1][size*size];
+            scores = new int[size*size + 1][size*size];
+            killers = new int[size*size + 1][2];
+            history = new int[2][size*size];
+            stats = new SearchStats(size*size);
+        }
+
+        //Method prepares search of a new move from game board
+        private void reset(Board game)
+        {
+            board.copy(game);
+
+            for (int[] killer : killers)           //killers of old plies do not apply
+                Arrays.fill(killer, -1);
+            for (int[] scores : history)           //age history scores
+                for (int cell = 0; cell < size*size; cell++)
+                    scores[cell] /= 2;
+
+            stats.reset();
+        }
+
+        //Method computes minmax value of a board
+        private int minmax(Board board, int level, int depth, int alpha, int beta)
+        {
+            stats.nodes++;                             //check clock now and then,
+            if ((stats.nodes & 1023) == 0 && timed && !pondering && depthLimit > 1
+                && System.nanoTime() - deadline > 0)   //first iteration always finishes
+                aborted = true;
+            if ((stats.nodes & 1023) == 0 && cancelled && pondering)
+                aborted = true;                        //player did not make predicted move
+            if (aborted)
+                return 0;
+            if (statistics && depth > stats.maxPly)
+                stats.maxPly = depth;
+
+            if (computerWin(board) || playerWin(board) || draw(board) || depth >= depthLimit)
+            {                                          //if board is terminal or depth limit is reached
+                if (statistics)
+                    stats.evaluations++;
+                return evaluate(board);
+            }
+            else                                       //evaluate board
+            {
+                int remaining = depthLimit - depth;    //depth left below board
+                int alphaBefore = alpha;               //window before table narrows it
+                int betaBefore = beta;
+                int bestMove = -1;
+                int side = level == MAX ? 0 : 1;       //side to move
+
+                int t = board.canonical();             //look up canonical form
+                long key = board.hashes[t];            //of board in table, the same
+                if (level == MIN)                      //board with player to move
+                    key ^= playerKey;                  //has its own key
+                long entry = table.probe(key);
+                if (statistics)
+                {
+                    stats.probes++;
+                    if (entry != 0)
+                        stats.hits++;
+                }
+
+                int stored = TranspositionTable.depth(entry);
+                if (entry != 0 && (timed ? stored >= remaining : stored == remaining))
+                {                                      //with a fixed depth only entries of that
+                                                       //depth, so threads do not change results
+                    int value = TranspositionTable.value(entry);
+                    int bound = TranspositionTable.bound(entry);
+
+                    if (bound == TranspositionTable.EXACT)
+                        alpha = beta = value;          //exact value ends search
+                    else if (bound == TranspositionTable.LOWER && value > alpha)
+                        alpha = value;                 //lower bound raises alpha
+                    else if (bound == TranspositionTable.UPPER && value < beta)
+                        beta = value;                  //upper bound lowers beta
+
+                    if (alpha >= beta)
+                    {
+                        if (statistics)
+                            stats.tableCutoffs++;
+                        return value;
+                    }
+                }
+
+                int result;
+                int count = generate(board, depth);    //generate moves of board
+                int tableMove = TranspositionTable.move(entry);  //table move is stored in
+                if (tableMove >= 0)                              //canonical form
+                    tableMove = symmetry[inverse[t]][tableMove];
+                order(depth, count, side, tableMove);
+
+                if (level == MAX)                      //if board is at max level     
+                {
+                     int maxValue = Integer.MIN_VALUE;
+
+                     for (int k = 0; k < count; k++)
+                     {                                 //find minmax values of children
+                         int move = selectMove(depth, k, count);
+                         board.place(move, COMPUTER);
+                         int currentValue;
+                         if (k == 0 || !pvs)
+                             currentValue = minmax(board, MIN, depth+1, alpha, beta);
+                         else
+                         {                             //later moves are first tested with
+                                                       //a null window to show they are no
+                                                       //better than alpha
+                             currentValue = minmax(board, MIN, depth+1, alpha, alpha + 1);
+                             if (currentValue > alpha && currentValue < beta && !aborted)
+                             {                         //if better search again for value
+                                 if (statistics)
+                                     stats.researches++;
+                                 currentValue = minmax(board, MIN, depth+1, alpha, beta);
+                             }
+                         }
+                         board.remove(move, COMPUTER);
+
+                         if (aborted)                  //stop at deadline
+                             return 0;
+
+                         if (currentValue > maxValue)  //find maximum of minmax values
+                         {
+                             maxValue = currentValue;
+                             bestMove = move;
+                         }
+
+                         if (maxValue >= beta)         //if maximum exceeds beta stop
+                         {
+                             cutoff(depth, k, side, move, remaining);
+                             break;
+                         }
+
+                         if (maxValue > alpha)         //if maximum exceeds alpha update alpha
+                             alpha = maxValue;
+                     }
+
+                     result = maxValue;                //maximum value   
+                }
+                else                                   //if board is at min level
+                {                     
+                     int minValue = Integer.MAX_VALUE;
+
+                     for (int k = 0; k < count; k++)
+                     {                                 //find minmax values of children
+                         int move = selectMove(depth, k, count);
+                         board.place(move, PLAYER);
+                         int currentValue;
+                         if (k == 0 || !pvs)
+                             currentValue = minmax(board, MAX, depth+1, alpha, beta);
+                         else
+                         {                             //later moves are first tested with
+                                                       //a null window to show they are no
+                                                       //better than beta
+                             currentValue = minmax(board, MAX, depth+1, beta - 1, beta);
+                             if (currentValue < beta && currentValue > alpha && !aborted)
+                             {                         //if better search again for value
+                                 if (statistics)
+                                     stats.researches++;
+                                 currentValue = minmax(board, MAX, depth+1, alpha, beta);
+                             }
+                         }
+                         board.remove(move, PLAYER);
+
+                         if (aborted)                  //stop at deadline
+                             return 0;
+
+                         if (currentValue < minValue)  //find minimum of minmax values
+                         {
+                             minValue = currentValue;
+                             bestMove = move;
+                         }
+
+                         if (minValue <= alpha)        //if minimum is less than alpha stop
+                         {
+                             cutoff(depth, k, side, move, remaining);
+                             break;
+                         }
+
+                         if (minValue < beta)          //if minimum is less than beta update beta
+                             beta = minValue;
+                     }
+
+                     result = minValue;                //minimum value 
+                }
+                if (bestMove >= 0)                     //store result with the kind of bound
+                    bestMove = symmetry[t][bestMove];  //it is compared to original window
+                if (result <= alphaBefore)
+                    table.store(key, remaining, TranspositionTable.UPPER, result, bestMove);
+                else if (result >= betaBefore)
+                    table.store(key, remaining, TranspositionTable.LOWER, result, bestMove);
+                else
+                    table.store(key, remaining, TranspositionTable.EXACT, result, bestMove);
+
+                return result;                         //return minmax value
+            }
+        }
+
+        //Method scores moves of a ply for ordering: table move first, then
+        //killer moves, then history score, then static score of cell
+        private void order(int ply, int count, int side, int tableMove)
+        {
+            int[] list = moves[ply];
+            int[] score = scores[ply];
+
+            for (int k = 0; k < count; k++)
+            {
+                int move = list[k];
+                if (move == tableMove)
+                    score[k] = Integer.MAX_VALUE;
+                else if (move == killers[ply][0])
+                    score[k] = Integer.MAX_VALUE - 1;
+                else if (move == killers[ply][1])
+                    score[k] = Integer.MAX_VALUE - 2;
+                else
+                    score[k] = (history[side][move] << 8) + prior[move];
+            }
+        }
+
+        //Method swaps the best scored of the remaining moves of a ply into
+        //position k and returns it, so moves are sorted only as far as searched
+        private int selectMove(int ply, int k, int count)
+        {
+            int[] list = moves[ply];
+            int[] score = scores[ply];
+
+            int best = k;
+            for (int m = k + 1; m < count; m++)
+                if (score[m] > score[best])
+                    best = m;
+
+            int move = list[best];                     //swap best into position k
+            list[best] = list[k];
+            list[k] = move;
+            int temp = score[best];
+            score[best] = score[k];
+            score[k] = temp;
+
+            return move;
+        }
+
+        //Method records a move that caused a cutoff as killer and in history
+        private void cutoff(int ply, int k, int side, int move, int remaining)
+        {
+            if (statistics)
+            {
+                stats.cutoffs++;
+                stats.plyCutoffs[ply]++;
+                if (k == 0)
+                    stats.firstCutoffs++;
+            }
+
+            if (killers[ply][0] != move)
+            {
+                killers[ply][1] = killers[ply][0];
+                killers[ply][0] = move;
+            }
+
+            history[side][move] += remaining * remaining;
+            if (history[side][move] > 1 << 20)         //keep history below 2^20 so
+                for (int[] scores : history)           //shifted scores stay below
+                    for (int cell = 0; cell < size*size; cell++)
+                        scores[cell] /= 2;             //killer and table scores
+        }
+
+        //Method searches a root move with a window of interesting values
+        private int root(int move, int alpha, int beta)
+        {
+            board.place(move, COMPUTER);               //make move, search, undo move
+            int value = minmax(board, MIN, 1, alpha, beta);
+            board.remove(move, COMPUTER);
+
+            return value;
+        }
+
+        //Method searches a root move after the first for a value better than
+        //a lower bound. With principal variation search the move is first
+        //tested with a null window and searched again only if it is better
+        private int root(int move, int alpha)
+        {
+            if (!pvs || alpha == Integer.MIN_VALUE)
+                return root(move, alpha, Integer.MAX_VALUE);
+
+            int value = root(move, alpha, alpha + 1);
+            if (value > alpha && !aborted)
+            {
+                if (statistics)
+                    stats.researches++;
+                value = root(move, alpha, Integer.MAX_VALUE);
+            }
+
+            return value;
+        }
+
+        //Method lists empty cells of board in moves of a ply, only those near
+        //a stone if moves are restricted, returns their number
+        private int generate(Board board, int ply)
+        {
+            int count = 0;
+            int[] list = moves[ply];                   //array reused at each ply
+            boolean near = distance > 0 && board.stones > 0;
+
+            for (int w = 0; w < words; w++)            //go thru empty cells
+            {
+                long empty = all[w] & ~(board.computer[w] | board.player[w]);
+                if (near)
+                    empty &= board.neighbors[w];
+                while (empty != 0)
+                {
+                    list[count++] = 64*w + Long.numberOfTrailingZeros(empty);
+                    empty &= empty - 1;
+                }
+            }
+
+            return count;                              //return number of moves
         }
     }
 
     private Board board;                           //game board
+    private Board threatBoard;                     //copy of game board for threat search,
+                                                   //which may run while the game board is shown
     private int size;                              //size of board
+    private int words;                             //longs per side of a board
+    private int inRow;                             //symbols in a row that win
+    private int lineCount;                         //number of lines of inRow cells
+    private int[][] cellLines;                     //lines thru each cell
+    private int[][] lineCells;                     //cells of each line
+    private int distance;                          //most distance of moves from stones,
+                                                   //0 for any empty cell
+    private int[][] neighborhood;                  //cells within distance of each cell
+    private int winValue;                          //value of a won board, above any
+                                                   //count of open lines
+    private long[] all;                            //mask of all cells
     private PrintWriter writer;
+    private long[][] zobrist;                      //random key per cell and symbol
+    private long playerKey;                        //key of player to move
+    private int[][] symmetry;                      //cell each cell goes to under each of
+                                                   //the 8 rotations and reflections
+    private int[] inverse;                         //symmetry that undoes each symmetry
+    private TranspositionTable table;              //results of searched positions
+    private int[] prior;                           //static score of each cell
+    private long moveTime;                         //time budget per computer move (ms)
+    private int fixedDepth;                        //depth of every search, 0 to use time
+    private boolean pvs;                           //use principal variation search
+    private OpeningBook book;                      //best moves of opening boards, or null
+    private Tablebase tablebase;                   //results of all boards, or null
+    private boolean verbose = true;                //print report of each search
+    private int searchDepth;                       //depth of last search, 0 for book move
+    private int searchValue;                       //minmax value of last search
+    private Scanner input;                         //player moves
+    private Engine engine;                         //other engine for computer moves, or null
+    private ScoreTracker scores;                   //scores of symbols in game
+    private boolean timed;                         //current search has a deadline
+    private long deadline;                         //System.nanoTime() when search stops
+    private volatile boolean aborted;              //search stopped at deadline
+    private Search[] searches;                     //state of each search thread
+    private ExecutorService pool;                  //runs helper search threads
+    private int[] rootMoves;                       //moves of game board in search order
+    private int[] rootValues;                      //minmax value of each root move
+    private boolean statistics = true;             //count search statistics
+    private SearchStats moveStats;                 //statistics of last search, or null
+                                                   //for a move found without search
+    private ExecutorService ponderer;              //searches on player's time, or null
+    private Future<Integer> ponderSearch;          //search after predicted move, or null
+    private int predicted;                         //predicted player move
+    private volatile boolean pondering;            //player has not moved: no deadline
+    private volatile boolean cancelled;            //player did not make predicted move
     
     //Constructor of AlphaBeta class
     public AlphaBeta(int size, String outputFile)
     {
+        this(size, outputFile, 0);
+    }
+
+    //Constructor of AlphaBeta class with time per computer move in
+    //milliseconds, 0 for the default. Output file may be null when the
+    //game is not played, only searched
+    public AlphaBeta(int size, String outputFile, long moveTime)
+    {
+        this(size, outputFile, moveTime, null);
+    }
+
+    //Constructor of AlphaBeta class where inRow symbols in a row, column,
+    //or any diagonal win instead of a whole line
+    public AlphaBeta(int size, int inRow, String outputFile, long moveTime)
+    {
+        this(size, inRow, outputFile, moveTime, null);
+    }
+
+    //Constructor of AlphaBeta class with a transposition table shared with
+    //other games of the same board size, null for a table of its own
+    AlphaBeta(int size, String outputFile, long moveTime, TranspositionTable table)
+    {
+        this(size, size, outputFile, moveTime, table);
+    }
+
+    //Constructor of AlphaBeta class with a transposition table shared with
+    //other games of the same board size and rule
+    AlphaBeta(int size, int inRow, String outputFile, long moveTime, TranspositionTable table)
+    {
+        if (inRow < 1 || inRow > size)
+            throw new IllegalArgumentException("symbols in a row must be 1 to " + size);
+
+        this.moveTime = moveTime > 0 ? moveTime : MOVE_TIME;
+
         try {
-            this.writer = new PrintWriter(new FileWriter(outputFile));
+            if (outputFile != null)
+                this.writer = new PrintWriter(new FileWriter(outputFile));
         } catch (IOException e) {
             e.printStackTrace();
         }
 
-        this.board = new Board(size);              //create game board 
         this.size = size;                          //set board size
+        this.words = (size*size + 63) / 64;
+        this.inRow = inRow;
+        this.lineCells = lines(size, inRow);       //precompute cells of lines
+        this.lineCount = lineCells.length;         //and lines thru cells
+        this.cellLines = linesThrough(lineCells, size*size);
+        this.winValue = Math.max(4*size, lineCount + 1);
+        this.distance = inRow < size ? NEIGHBORHOOD : 0;
+        this.neighborhood = neighborhood(distance);
+        this.all = new long[words];
+        for (int cell = 0; cell < size*size; cell++)
+            all[cell >>> 6] |= 1L << cell;
+
+        this.symmetry = symmetries(size);          //precompute symmetries
+        this.inverse = inverses();
+
+        this.board = new Board(size);              //create game board 
+        this.threatBoard = new Board(size);
+        this.scores = new ScoreTracker(size, EMPTY, COMPUTER, PLAYER);
+
+        Random random = new Random(SEED);          //create zobrist keys
+        this.zobrist = new long[size*size][2];
+        for (int i = 0; i < size*size; i++)
+        {
+            zobrist[i][0] = random.nextLong();     //key of computer symbol
+            zobrist[i][1] = random.nextLong();     //key of player symbol
+        }
+        this.playerKey = random.nextLong();
+
+        this.table = table != null ? table : new TranspositionTable(TABLE_SIZE);
+        this.searches = new Search[] { new Search() };
+        this.rootMoves = new int[size*size];
+        this.rootValues = new int[size*size];
+        this.prior = new int[size*size];
+
+        for (int cell = 0; cell < size*size; cell++)
+        {                                          //static score is number of lines
+            int i = cell / size;                   //thru cell, then closeness to center
+            int j = cell % size;
+            prior[cell] += 2*size * cellLines[cell].length;
+            prior[cell] += 2*size - Math.abs(2*i - size + 1) - Math.abs(2*j - size + 1);
+        }
     }
 
-    //Method plays game
+    //Method sets number of search threads. Root moves after the first are
+    //split between threads, which share the transposition table and the
+    //best value found so far
+    public void setThreads(int threads)
+    {
+        if (pool != null)
+            pool.shutdownNow();
+        pool = null;
+
+        searches = new Search[Math.max(1, threads)];
+        for (int k = 0; k < searches.length; k++)
+            searches[k] = new Search();
+
+        if (searches.length > 1)
+            pool = Executors.newFixedThreadPool(searches.length - 1, runnable -> {
+                Thread thread = new Thread(runnable, "alphabeta-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    //Method sets time budget per computer move in milliseconds
+    public void setMoveTime(long moveTime)
+    {
+        this.moveTime = moveTime > 0 ? moveTime : MOVE_TIME;
+    }
+
+    //Method sets a fixed search depth instead of the time budget, 0 to use
+    //time again. With a fixed depth the move chosen is the same for any
+    //number of threads
+    public void setFixedDepth(int depth)
+    {
+        fixedDepth = depth;
+    }
+
+    //Method restricts moves to empty cells within a distance of a stone,
+    //counting steps along rows, columns, and diagonals, 0 for any empty
+    //cell. Boards keep the cells near stones as stones come and go
+    public void setNeighborhood(int distance)
+    {
+        this.distance = Math.max(0, distance);
+        this.neighborhood = neighborhood(this.distance);
+
+        Board old = board;                         //count stones near cells of
+        board = new Board(size);                   //game board again
+        for (int cell = 0; cell < size*size; cell++)
+            if (old.get(cell / size, cell % size) != EMPTY)
+                board.place(cell, old.get(cell / size, cell % size));
+    }
+
+    //Method turns principal variation search on or off. The first move of
+    //each board gets a full window and the rest a null window, and each
+    //iteration starts with a window around the value of the one before
+    public void setPrincipalVariation(boolean on)
+    {
+        pvs = on;
+    }
+
+    //Method maps an opening book made by BookBuilder for this board size,
+    //returns false if the file is missing or not a book of this size, or
+    //if fewer than size symbols in a row win, which books do not know
+    public boolean setBook(String fileName)
+    {
+        book = inRow == size ? OpeningBook.load(fileName, size) : null;
+        return book != null;
+    }
+
+    //Method maps a tablebase made by TablebaseBuilder for this board size,
+    //returns false if the file is missing or not a tablebase of this size,
+    //or if fewer than size symbols in a row win. Computer moves are then
+    //taken from it before the book or a search
+    public boolean setTablebase(String fileName)
+    {
+        tablebase = inRow == size ? Tablebase.load(fileName, size) : null;
+        return tablebase != null;
+    }
+
+    //Method sets another engine, such as MonteCarlo, to choose computer
+    //moves after the opening book, null to use alpha-beta search again
+    public void setEngine(Engine engine)
+    {
+        this.engine = engine;
+    }
+
+    //Method turns pondering on or off. While the player thinks, the game
+    //board after the predicted player move is searched on another thread.
+    //If the player makes that move the search goes on, timed from its
+    //start, and its move is taken; otherwise it is stopped, and only what
+    //it stored in the transposition table is kept
+    public void setPondering(boolean on)
+    {
+        if (on && ponderer == null)
+            ponderer = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "alphabeta-ponder");
+                thread.setDaemon(true);
+                return thread;
+            });
+        else if (!on && ponderer != null)
+        {
+            ponderer.shutdownNow();
+            ponderer = null;
+        }
+    }
+
+    //Method turns counting of search statistics on or off. Nodes, depth,
+    //and time are counted either way
+    public void setStatistics(boolean on)
+    {
+        statistics = on;
+    }
+
+    //Method returns statistics of the last search, or null if the last
+    //move was found without one
+    public SearchStats getStatistics()
+    {
+        return moveStats;
+    }
+
+    //Method turns printing of the search report on or off
+    public void setVerbose(boolean on)
+    {
+        verbose = on;
+    }
+
+    //Method finds best move of a side in a position. Cells hold COMPUTER
+    //('X'), PLAYER ('0'), or EMPTY (' ') symbols and side is the symbol to
+    //move. The position becomes the game board, with symbols swapped when
+    //the player is to move so the search is always from side to move
+    public SearchResult bestMove(char[][] cells, char side)
+    {
+        setPosition(cells, side);
+
+        long start = System.nanoTime();
+        long nodes = 0;
+        int move = knownMove();
+        if (move < 0)
+        {
+            move = search();
+            nodes = nodes();
+        }
+
+        return new SearchResult(move / size, move % size, searchValue, searchDepth,
+                                nodes, System.nanoTime() - start, searchDepth == 0, moveStats);
+    }
+
+    //Method makes a position the game board, with symbols swapped when the
+    //player is to move
+    void setPosition(char[][] cells, char side)
+    {
+        if (side != COMPUTER && side != PLAYER)
+            throw new IllegalArgumentException("side must be " + COMPUTER + " or " + PLAYER);
+
+        board = new Board(size);                   //set up game board
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < size; j++)
+                if (cells[i][j] == COMPUTER || cells[i][j] == PLAYER)
+                    board.place(i*size + j, (cells[i][j] == side) ? COMPUTER : PLAYER);
+                else if (cells[i][j] != EMPTY)
+                    throw new IllegalArgumentException("bad symbol '" + cells[i][j] + "' in cell " + i + " " + j);
+
+        if (over())
+            throw new IllegalArgumentException("game is already over");
+    }
+
+    //Method plays game reading player moves from standard input
     public void play()
     {
-    
+        play(new Scanner(System.in));
+    }
+
+    //Method plays game reading player moves from a scanner
+    public void play(Scanner input)
+    {
+        this.input = input;
+
         try {
         while (true)                                   //computer and player take turns
         {
@@ -109,6 +868,7 @@ public class AlphaBeta
             }
         }
         finally {
+            stopPonder(-1);                        //stop search if input ended
             if (writer != null) {
                 writer.flush(); // Ensure all data is written out
                 writer.close(); // Close the writer to release resources
@@ -125,11 +885,19 @@ public class AlphaBeta
         writer.println("Player move: ");
         System.out.print("Player move: ");         //prompt player
      
-            Scanner scanner = new Scanner(System.in);
-            int i = scanner.nextInt();
-            int j = scanner.nextInt();
+            startPonder();                             //search while player thinks
+            int i = input.nextInt();
+            int j = input.nextInt();
+            while (i < 0 || i >= size || j < 0 || j >= size || board.get(i, j) != EMPTY)
+            {                                      //cell must be on board and empty
+                System.out.print("Cell is not empty or off board, player move: ");
+                i = input.nextInt();
+                j = input.nextInt();
+            }
 
-            board.array[i][j] = PLAYER;                //place player symbol
+            if (!stopPonder(i*size + j))               //place player symbol unless
+                board.place(i*size + j, PLAYER);       //predicted move is placed
+            scores.place(i, j, PLAYER);
         
         displayBoard(board);                       //diplay board
 
@@ -138,116 +906,578 @@ public class AlphaBeta
 
     //Method determines computer's move
     private Board computerMove(Board board)
-    {                                              //generate children of board
-        LinkedList<Board> children = generate(board, COMPUTER);
+    {
+        int move = respond();                      //find and make computer move
+                                                   
+        int i = move / size;                       //cell of computer move
+        int j = move % size;
+        scores.place(i, j, COMPUTER);
+        writer.println("Computer move: " + i + " " + j);
+        if (statistics && moveStats != null)       //record search of move
+            writer.println("Search statistics: " + moveStats);
+        System.out.println("Computer move: " + i + " " + j); 
+
 
-        int maxIndex = -1;
-        int maxValue = Integer.MIN_VALUE;
-                                                   //find the child with
-        for (int i = 0; i < children.size(); i++)  //largest minmax value
+        displayBoard(board);                       //print next move
+
+        return board;                              //retun updated board
+    }
+
+    //Method finds computer move on game board, makes it, and returns it
+    int respond()
+    {
+        int move = ponderMove();                   //take move found while player
+        if (move < 0)                              //thought, or known move of game
+            move = knownMove();                    //board if there is one, else
+        if (move < 0 && engine != null)            //search it
         {
-            int currentValue = minmax(children.get(i), MIN, 1, Integer.MIN_VALUE, Integer.MAX_VALUE);
-            if (currentValue > maxValue)
-            {
-                maxIndex = i;
-                maxValue = currentValue;
-            }
+            SearchResult result = engine.bestMove(cells(board), COMPUTER);
+            log("Search: " + result);
+            move = result.getRow()*size + result.getColumn();
         }
+        else if (move < 0)
+            move = search();
+        board.place(move, COMPUTER);               //make the move on game board
 
-        Board result = children.get(maxIndex);     //choose the child as next move
-                                                   
-        for (int i = 0; i < size; i++) {
-        for (int j = 0; j < size; j++) {
-            if (board.array[i][j] != result.array[i][j])
+        return move;
+    }
+
+    //Method starts search of game board after predicted player move, with
+    //the move in place, unless the game would be over
+    private void startPonder()
+    {
+        if (ponderer == null || engine != null || over())
+            return;
+
+        predicted = predictMove();
+        board.place(predicted, PLAYER);
+        if (over())
+        {
+            board.remove(predicted, PLAYER);
+            return;
+        }
+
+        pondering = true;                          //quiet and no deadline until
+        cancelled = false;                         //player moves
+        ponderSearch = ponderer.submit(() -> {
+            int move = knownMove();
+            return move >= 0 ? move : search();
+        });
+    }
+
+    //Method ends pondering once the player has made a move, returns true
+    //if it was the predicted move, which is then already on game board
+    private boolean stopPonder(int move)
+    {
+        if (ponderSearch == null)
+            return false;
+
+        if (move == predicted)                     //search goes on with a deadline
+        {
+            pondering = false;
+            return true;
+        }
+
+        cancelled = true;                          //stop search and undo predicted move
+        waitPonder();
+        ponderSearch = null;
+        pondering = false;
+        board.remove(predicted, PLAYER);
+        log("Ponder miss: predicted " + predicted / size + " " + predicted % size);
+        return false;
+    }
+
+    //Method returns move of search made after predicted player move, when
+    //the player made it, or -1
+    private int ponderMove()
+    {
+        if (ponderSearch == null)
+            return -1;
+
+        long start = System.nanoTime();
+        int move = waitPonder();
+        ponderSearch = null;
+        log("Ponder hit: waited " + (System.nanoTime() - start) / 1000000 + " ms");
+        return move;
+    }
+
+    //Method waits for search after predicted player move, returns its move
+    private int waitPonder()
+    {
+        try {
+            return ponderSearch.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //Method predicts player move on game board: best reply stored in
+    //transposition table, else empty cell of best static score
+    private int predictMove()
+    {
+        int t = board.canonical();                 //table keeps player to move boards
+        int move = TranspositionTable.move(table.probe(board.hashes[t] ^ playerKey));
+        if (move >= 0)                             //in canonical form
+        {
+            move = symmetry[inverse[t]][move];
+            if (empty(move))
+                return move;
+        }
+
+        int best = -1;
+        for (int cell = 0; cell < size*size; cell++)
+            if (empty(cell) && (best < 0 || prior[cell] > prior[best]))
+                best = cell;
+        return best;
+    }
+
+    //Method looks up game board in tablebase, then in opening book, returns
+    //move found or -1
+    private int knownMove()
+    {
+        moveStats = null;
+        int move = tablebaseMove();
+        if (move < 0)
+            move = bookMove();
+        if (move < 0)
+            move = threatMove();
+        return move;
+    }
+
+    //Method looks for moves forced by threats on game board, lines missing
+    //one symbol: a win, a block of a player win, or a forced win made of
+    //threats that each leave the player a single reply. Returns the move,
+    //or -1 if threats do not decide the move
+    private int threatMove()
+    {
+        int move = winningCell(board, COMPUTER);   //win now
+        if (move >= 0)
+        {
+            log("Threat search: win");
+            searchDepth = 0;
+            searchValue = winValue;
+            return move;
+        }
+
+        move = winningCell(board, PLAYER);         //block player win
+        if (move >= 0)
+        {
+            log("Threat search: forced block");
+            searchDepth = 0;
+            searchValue = 0;
+            return move;
+        }
+
+        long start = System.nanoTime();
+        threatBoard.copy(board);                   //threats are tried on a copy, so
+        move = forcedWin(threatBoard, THREAT_DEPTH);   //game board never changes
+        if (move < 0)
+            return -1;
+
+        log("Threat search: forced win found in " + (System.nanoTime() - start) / 1000 + " us");
+        searchDepth = 0;
+        searchValue = winValue;
+        return move;
+    }
+
+    //Method finds first move of a sequence of computer threats that wins
+    //against any replies, using at most depth threats, or returns -1.
+    //Player has no winning move on board. A threat with two winning cells
+    //wins; a threat with one forces the player to block it, and the block
+    //must not give the player a winning move. Other player replies are not
+    //tried, so a sequence found is a proof but not every win is found
+    private int forcedWin(Board board, int depth)
+    {
+        int win = winningCell(board, COMPUTER);    //win now
+        if (win >= 0 || depth == 0)
+            return win;
+
+        for (int k = 0; k < lineCount; k++)        //moves that make a threat:
+        {                                          //empty cells of lines with all
+            if (board.computerCounts[k] != inRow - 2 || board.playerCounts[k] != 0)
+                continue;                          //but two computer symbols
+
+            for (int move : lineCells[k])
             {
-                // computer move coordinates
-                writer.println("Computer move: " + i + " " + j);
-                System.out.println("Computer move: " + i + " " + j); 
-                break; 
+                if (board.get(move / size, move % size) != EMPTY)
+                    continue;
+
+                board.place(move, COMPUTER);
+                boolean wins = false;
+                int first = winningCell(board, COMPUTER);
+                if (first >= 0 && winningCell(board, COMPUTER, first) >= 0)
+                    wins = true;                   //two threats: one is left
+                else if (first >= 0)
+                {
+                    board.place(first, PLAYER);    //single reply to a threat
+                    wins = winningCell(board, PLAYER) < 0 && forcedWin(board, depth - 1) >= 0;
+                    board.remove(first, PLAYER);
+                }
+                board.remove(move, COMPUTER);
+
+                if (wins)
+                    return move;
             }
         }
+
+        return -1;
+    }
+
+    //Method finds an empty cell that completes a line of a symbol, or -1
+    private int winningCell(Board board, char symbol)
+    {
+        return winningCell(board, symbol, -1);
     }
 
+    //Method finds an empty cell other than a given cell that completes a
+    //line of a symbol, or -1
+    private int winningCell(Board board, char symbol, int other)
+    {
+        int[] own = symbol == COMPUTER ? board.computerCounts : board.playerCounts;
+        int[] opponent = symbol == COMPUTER ? board.playerCounts : board.computerCounts;
 
-        //compare board to current board
-        displayBoard(result);                      //print next move
+        for (int k = 0; k < lineCount; k++)
+            if (own[k] == inRow - 1 && opponent[k] == 0)
+                for (int cell : lineCells[k])
+                    if (cell != other && board.get(cell / size, cell % size) == EMPTY)
+                        return cell;
 
-        return result;                             //retun updated board
+        return -1;
     }
 
-    //Method computes minmax value of a board
-    private int minmax(Board board, int level, int depth, int alpha, int beta)
+    //Method looks up game board in tablebase, returns best move or -1
+    private int tablebaseMove()
     {
-        if (computerWin(board) || playerWin(board) || draw(board) || depth >= MAX_DEPTH)
-            return evaluate(board);                //if board is terminal or depth limit is reached
-            
+        if (tablebase == null)
+            return -1;
 
+        int[] cells = new int[size*size];          //tablebase digits: 1 for
+        for (int cell = 0; cell < size*size; cell++)   //computer, 2 for player
+        {
+            char symbol = board.get(cell / size, cell % size);
+            cells[cell] = symbol == COMPUTER ? 1 : symbol == PLAYER ? 2 : 0;
+        }
 
+        int move = tablebase.bestMove(cells);
+        if (move < 0)
+            return -1;
+
+        int entry = tablebase.lookup(cells);
+        int result = Tablebase.result(entry);
+        log("Tablebase move: " + (result == Tablebase.WIN ? "win" : result == Tablebase.LOSS ? "loss" : "draw")
+          + " in " + Tablebase.plies(entry) + " plies");
+        searchDepth = 0;
+        searchValue = result == Tablebase.WIN ? winValue : result == Tablebase.LOSS ? -winValue : 3*size;
+        return move;
+    }
 
-        else                                       //evaluate board
+    //Method looks up game board in opening book, returns book move or -1
+    private int bookMove()
+    {
+        if (book == null || board.stones > book.plies())
+            return -1;
+
+        int t = board.canonical();                 //book keeps canonical boards
+        int move = book.move(board.hashes[t]);     //and moves, so undo symmetry
+        if (move < 0 || move >= size*size)
+            return -1;
+
+        move = symmetry[inverse[t]][move];
+        if (board.get(move / size, move % size) != EMPTY)
+            return -1;
+
+        log("Book move");
+        searchDepth = 0;
+        searchValue = 0;
+        return move;
+    }
+
+    //Method searches game board for computer's move by iterative deepening:
+    //each iteration searches one ply deeper until the time budget runs out
+    //(or fixed depth is reached), and the best move of the last completed
+    //iteration is returned
+    int search()
+    {
+        long start = System.nanoTime();
+        timed = fixedDepth == 0;
+        deadline = start + moveTime * 1000000L;
+        aborted = false;
+        SearchStats stats = new SearchStats(size*size);
+
+        for (Search search : searches)             //start each thread from game board
+            search.reset(board);
+
+        Search main = searches[0];                 //root moves in order of static score,
+        int empty = main.generate(board, 0);       //leaving out moves that give a board
+        int count = 0;                             //symmetric to one of an earlier move
+        long[] keys = new long[empty];
+        for (int k = 0; k < empty; k++)
+        {
+            int move = main.moves[0][k];
+            main.board.place(move, COMPUTER);
+            long key = main.board.hashes[main.board.canonical()];
+            main.board.remove(move, COMPUTER);
+
+            boolean symmetric = false;
+            for (int m = 0; m < count; m++)
+                symmetric |= keys[m] == key;
+            if (symmetric)
+                continue;
+
+            int m = count++;
+            for (; m > 0 && prior[rootMoves[m-1]] < prior[move]; m--)
+            {
+                rootMoves[m] = rootMoves[m-1];
+                keys[m] = keys[m-1];
+            }
+            rootMoves[m] = move;
+            keys[m] = key;
+        }
+        log("Root moves: " + count + " of " + empty + " after symmetry"
+          + (distance > 0 ? " near stones" : ""));
+
+        int bestMove = rootMoves[0];
+        int value = 0;                             //value of last iteration
+        searchDepth = 0;
+        int left = size*size - board.stones;       //plies to end of game
+        int lastDepth = timed ? left : Math.min(fixedDepth, left);
+        for (int depth = 1; depth <= lastDepth; depth++)
         {
-            if (level == MAX)                      //if board is at max level     
+            long before = nodes();
+            for (Search search : searches)
+                search.depthLimit = depth;
+
+            int best = pvs && depth > 1            //index of best move, -1 if stopped
+                     ? searchRoot(count, value - ASPIRATION*size, value + ASPIRATION*size)
+                     : searchRoot(count, Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+            if (best < 0)
             {
-                 LinkedList<Board> children = generate(board, COMPUTER);
-                                                   //generate children of board
-                 int maxValue = Integer.MIN_VALUE;
+                log("Depth " + depth + ": stopped after " + (nodes() - before) + " nodes");
+                break;
+            }
 
-                 for (int i = 0; i < children.size(); i++)
-                 {                                 //find minmax values of children
-                     int currentValue = minmax(children.get(i), MIN, depth+1, alpha, beta);
-                                                   
-                     if (currentValue > maxValue)  //find maximum of minmax values
-                         maxValue = currentValue;
-                                                   
-                     if (maxValue >= beta)         //if maximum exceeds beta stop
-                         return maxValue;
-                                                   
-                     if (maxValue > alpha)         //if maximum exceeds alpha update alpha
-                         alpha = maxValue;
-                 }
+            bestMove = rootMoves[best];            //iteration finished
+            value = rootValues[best];
+            searchDepth = depth;
+            stats.depthNodes[depth] = nodes() - before;
+            log("Depth " + depth + ": " + (nodes() - before) + " nodes, best move "
+              + bestMove / size + " " + bestMove % size + ", value " + rootValues[best]);
+
+            moveToFront(rootMoves, count, bestMove);//search best move first next time
+                                                   //stop if next iteration
+            if (timed && !pondering && System.nanoTime() - start > moveTime * 500000L)
+                break;                             //cannot finish in time
+            if (cancelled && pondering)
+                break;
+        }
+
+        for (Search search : searches)             //add up statistics of threads
+            stats.add(search.stats);
+        stats.depth = searchDepth;
+        stats.nanos = System.nanoTime() - start;
+        moveStats = stats;
+
+        if (statistics)                            //report table use and cutoffs
+        {
+            log("Table probes: " + stats.probes + ", hits: " + stats.hits + " (" + percent(stats.hits, stats.probes)
+              + "%), cutoffs: " + stats.tableCutoffs + " (" + percent(stats.tableCutoffs, stats.probes) + "%)");
+            log("Search cutoffs: " + stats.cutoffs + ", by first move: " + stats.firstCutoffs
+              + " (" + percent(stats.firstCutoffs, stats.cutoffs) + "%)");
+            if (pvs)
+                log("Null window searches searched again: " + stats.researches);
+        }
+
+        searchValue = value;
+        return bestMove;
+    }
+
+    //Method puts a symbol of computer or player in a cell of game board
+    void place(int cell, boolean computer)
+    {
+        board.place(cell, computer ? COMPUTER : PLAYER);
+    }
+
+    //Method takes a symbol of computer or player out of a cell of game board
+    void remove(int cell, boolean computer)
+    {
+        board.remove(cell, computer ? COMPUTER : PLAYER);
+    }
+
+    //Method checks whether a cell of game board is empty
+    boolean empty(int cell)
+    {
+        return board.get(cell / size, cell % size) == EMPTY;
+    }
 
-                 return maxValue;                  //return maximum value   
+    //Method checks whether game board is won or drawn
+    boolean over()
+    {
+        return computerWin(board) || playerWin(board) || draw(board);
+    }
+
+    //Method returns symbol that won game board, EMPTY if none has
+    char winner()
+    {
+        return computerWin(board) ? COMPUTER : playerWin(board) ? PLAYER : EMPTY;
+    }
+
+    //Method evaluates game board
+    int evaluate()
+    {
+        return evaluate(board);
+    }
+
+    //Method counts possible ways a symbol can win on game board
+    int count(char symbol)
+    {
+        return count(board, symbol);
+    }
+
+    //Method checks whether a symbol fills a line of game board
+    boolean check(char symbol)
+    {
+        return check(board, symbol);
+    }
+
+    //Method returns key of canonical form of game board
+    long canonicalKey()
+    {
+        return board.hashes[board.canonical()];
+    }
+
+    //Method returns cell a move on game board goes to in canonical form
+    int canonicalMove(int move)
+    {
+        return symmetry[board.canonical()][move];
+    }
+
+    //Method finds minmax values of root moves at current depth and returns
+    //index of best move (first of equal values), or -1 if search stopped.
+    //The first move is searched alone in a window that is widened until
+    //its value falls inside. With one thread each other move gets a full
+    //window, or with principal variation search is tested against the best
+    //value so far. With more threads, threads take the remaining moves and
+    //only look for values at least as good as the best so far
+    private int searchRoot(int count, int lower, int upper)
+    {
+        Search main = searches[0];
+        rootValues[0] = main.root(rootMoves[0], lower, upper);
+        while (!aborted && (rootValues[0] <= lower || rootValues[0] >= upper))
+        {                                          //outside aspiration window:
+            if (rootValues[0] <= lower)            //search again with that side open
+                lower = Integer.MIN_VALUE;
+            if (rootValues[0] >= upper)
+                upper = Integer.MAX_VALUE;
+            if (statistics)
+                main.stats.researches++;
+            rootValues[0] = main.root(rootMoves[0], lower, upper);
+        }
+
+        if (searches.length == 1)
+        {
+            int best = rootValues[0];
+            for (int k = 1; k < count && !aborted; k++)
+            {
+                rootValues[k] = main.root(rootMoves[k], pvs ? best : Integer.MIN_VALUE);
+                best = Math.max(best, rootValues[k]);
             }
-            else                                   //if board is at min level
-            {                     
-                 LinkedList<Board> children = generate(board, PLAYER);
-                                                   //generate children of board
-                 int minValue = Integer.MAX_VALUE;
-
-                 for (int i = 0; i < children.size(); i++)
-                 {                                 //find minmax values of children
-                     int currentValue = minmax(children.get(i), MAX, depth+1, alpha, beta);
-                                     
-                     if (currentValue < minValue)  //find minimum of minmax values
-                         minValue = currentValue;
-                                     
-                     if (minValue <= alpha)        //if minimum is less than alpha stop
-                         return minValue;
-                                     
-                     if (minValue < beta)          //if minimum is less than beta update beta
-                         beta = minValue;
-                 }
-
-                 return minValue;                  //return minimum value 
+        }
+        else if (!aborted)
+        {
+            AtomicInteger next = new AtomicInteger(1);   //next root move to search
+            AtomicInteger alpha = new AtomicInteger(rootValues[0]);
+
+            ArrayList<Future<?>> helpers = new ArrayList<Future<?>>();
+            for (int t = 1; t < searches.length; t++)
+            {
+                Search helper = searches[t];
+                helpers.add(pool.submit(() -> searchRootMoves(helper, count, next, alpha)));
             }
+            searchRootMoves(main, count, next, alpha);
+
+            for (Future<?> helper : helpers)
+                try {
+                    helper.get();
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new IllegalStateException(e);
+                }
+        }
+
+        if (aborted)
+            return -1;
+
+        int best = 0;
+        for (int k = 1; k < count; k++)
+            if (rootValues[k] > rootValues[best])
+                best = k;
+
+        return best;
+    }
+
+    //Method lets a search thread take root moves until none are left. A
+    //move searched with a lower bound of alpha-1 gets its exact value when
+    //it ties or beats alpha, so ties are broken the same way as with one thread
+    private void searchRootMoves(Search search, int count, AtomicInteger next, AtomicInteger alpha)
+    {
+        int k;
+        while (!aborted && (k = next.getAndIncrement()) < count)
+        {
+            int bound = alpha.get();
+            int value = search.root(rootMoves[k], bound == Integer.MIN_VALUE ? bound : bound - 1);
+            rootValues[k] = value;
+            alpha.accumulateAndGet(value, Math::max);
         }
     }
 
-    //Method generates children of board using a symbol
-    private LinkedList<Board> generate(Board board, char symbol)
+    //Method adds up nodes searched by all threads
+    private long nodes()
+    {
+        long nodes = 0;
+        for (Search search : searches)
+            nodes += search.stats.nodes;
+        return nodes;
+    }
+
+    //Method moves a move to the front of a move list, keeping order of the rest
+    private void moveToFront(int[] list, int count, int move)
     {
-        LinkedList<Board> children = new LinkedList<Board>();
-                                                   //empty list of children
+        for (int k = 0; k < count; k++)
+            if (list[k] == move)
+            {
+                System.arraycopy(list, 0, list, 1, k);
+                list[0] = move;
+                return;
+            }
+    }
+
+    //Method returns zobrist key of a symbol in a cell
+    private long key(int cell, char symbol)
+    {
+        return zobrist[cell][symbol == COMPUTER ? 0 : 1];
+    }
+
+    //Method returns symbols of cells of a board
+    private char[][] cells(Board board)
+    {
+        char[][] cells = new char[size][size];
         for (int i = 0; i < size; i++)
-            for (int j = 0; j < size; j++)         //go thru board
-                if (board.array[i][j] == EMPTY)
-                {                                  //if slot is empty
-                    Board child = copy(board);     //put the symbol and
-                    child.array[i][j] = symbol;    //create child board
-                    children.addLast(child);
-                }
+            for (int j = 0; j < size; j++)
+                cells[i][j] = board.get(i, j);
+        return cells;
+    }
 
-        return children;                           //return list of children
+    //Method prints a line of the search report unless quiet or pondering
+    private void log(String line)
+    {
+        if (verbose && !pondering)
+            System.out.println(line);
+    }
+
+    //Method returns a count as a whole percentage of a total
+    private long percent(long count, long total)
+    {
+        return total == 0 ? 0 : 100 * count / total;
     }
 
     //Method checks whether computer wins
@@ -273,84 +1503,129 @@ public class AlphaBeta
     //by a symbol
     private boolean check(Board board, char symbol)
     {
-        for (int i = 0; i < size; i++)             //check each row
-            if (checkRow(board, i, symbol))
-               return true;
-
-        for (int i = 0; i < size; i++)             //check each column
-            if (checkColumn(board, i, symbol))
-                return true;
-
-        if (checkLeftDiagonal(board, symbol))      //check left diagonal
-            return true;
-
-        if (checkRightDiagonal(board, symbol))     //check right diagonal
-            return true;
-
-        return false;                          
+        return (symbol == COMPUTER ? board.computerLines : board.playerLines) > 0;
     }
 
-    //Method checks whether a row is occupied by a symbol
-    private boolean checkRow(Board board, int i, char symbol)
+    //Method checks whether a board is full
+    private boolean full(Board board)
     {
-        for (int j = 0; j < size; j++)
-            if (board.array[i][j] != symbol)
-                return false;
-
-        return true;
+        return board.stones == size*size;
     }
 
-    //Method checks whether a column is occupied by a symbol
-    private boolean checkColumn(Board board, int i, char symbol)
+    //Method builds the 8 symmetries of a board size: rotations by 0, 90,
+    //180, and 270 degrees, each with and without a reflection first
+    static int[][] symmetries(int size)
     {
-        for (int j = 0; j < size; j++)
-            if (board.array[j][i] != symbol)
-                return false;
+        int[][] result = new int[8][size*size];
 
-        return true;
+        for (int t = 0; t < 8; t++)
+            for (int cell = 0; cell < size*size; cell++)
+            {
+                int i = cell / size;
+                int j = cell % size;
+                if (t >= 4)                        //reflect left to right
+                    j = size - 1 - j;
+                for (int r = 0; r < t % 4; r++)    //rotate by 90 degrees
+                {
+                    int temp = i;
+                    i = j;
+                    j = size - 1 - temp;
+                }
+                result[t][cell] = i*size + j;
+            }
+
+        return result;
     }
 
-    //Method checks whether left diagonal is occupied a symbol
-    private boolean checkLeftDiagonal(Board board, char symbol)
+    //Method finds the symmetry that undoes each symmetry
+    private int[] inverses()
     {
-        for (int i = 0; i < size; i++)
-            if (board.array[i][i] != symbol)
-               return false;
+        int[] result = new int[8];
+
+        for (int t = 0; t < 8; t++)
+            for (int u = 0; u < 8; u++)
+            {
+                boolean undoes = true;
+                for (int cell = 0; cell < size*size; cell++)
+                    if (symmetry[u][symmetry[t][cell]] != cell)
+                        undoes = false;
+                if (undoes)
+                    result[t] = u;
+            }
 
-        return true;
+        return result;
     }
 
-    //Method checks whether right diagonal is occupied by a symbol
-    private boolean checkRightDiagonal(Board board, char symbol)
+    //Method lists cells of each line of inRow cells: parts of rows, then
+    //of columns, then of diagonals down to the right and down to the left.
+    //When inRow is size, row i is line i, column j is line size+j, and the
+    //diagonals are lines 2*size, 2*size+1
+    static int[][] lines(int size, int inRow)
     {
-        for (int i = 0; i < size; i++)
-            if (board.array[i][size-1-i] != symbol)
-               return false;
-
-        return true;
+        int starts = size - inRow + 1;             //lines along a row or column
+        int[][] result = new int[2*size*starts + 2*starts*starts][inRow];
+        int line = 0;
+
+        for (int i = 0; i < size; i++)             //rows
+            for (int s = 0; s < starts; s++, line++)
+                for (int t = 0; t < inRow; t++)
+                    result[line][t] = i*size + s + t;
+        for (int j = 0; j < size; j++)             //columns
+            for (int s = 0; s < starts; s++, line++)
+                for (int t = 0; t < inRow; t++)
+                    result[line][t] = (s + t)*size + j;
+        for (int i = 0; i < starts; i++)           //diagonals down to the right
+            for (int j = 0; j < starts; j++, line++)
+                for (int t = 0; t < inRow; t++)
+                    result[line][t] = (i + t)*size + j + t;
+        for (int i = 0; i < starts; i++)           //diagonals down to the left
+            for (int j = inRow - 1; j < size; j++, line++)
+                for (int t = 0; t < inRow; t++)
+                    result[line][t] = (i + t)*size + j - t;
+
+        return result;
     }
 
-    //Method checks whether a board is full
-    private boolean full(Board board)
+    //Method lists lines thru each of a number of cells, in order of line
+    static int[][] linesThrough(int[][] lines, int cells)
     {
-        for (int i = 0; i < size; i++)
-            for (int j = 0; j < size; j++)
-                if (board.array[i][j] == EMPTY)
-                   return false;
+        int[] counts = new int[cells];
+        for (int[] line : lines)
+            for (int cell : line)
+                counts[cell]++;
+
+        int[][] result = new int[cells][];
+        for (int cell = 0; cell < cells; cell++)
+            result[cell] = new int[counts[cell]];
+
+        Arrays.fill(counts, 0);
+        for (int k = 0; k < lines.length; k++)
+            for (int cell : lines[k])
+                result[cell][counts[cell]++] = k;
 
-        return true;
+        return result;
     }
 
-    //Method makes copy of a board
-    private Board copy(Board board)
-    { 
-        Board result = new Board(size);      
+    //Method lists cells within a distance of each cell, other than the
+    //cell itself; none for distance 0
+    private int[][] neighborhood(int distance)
+    {
+        int[][] result = new int[size*size][];
 
-        for (int i = 0; i < size; i++)       
-            for (int j = 0; j < size; j++)
-                result.array[i][j] = board.array[i][j];
+        for (int cell = 0; cell < size*size; cell++)
+        {
+            int[] cells = new int[size*size];
+            int count = 0;
+            int i = cell / size;
+            int j = cell % size;
+            for (int x = Math.max(0, i - distance); x <= Math.min(size - 1, i + distance); x++)
+                for (int y = Math.max(0, j - distance); y <= Math.min(size - 1, j + distance); y++)
+                    if (x != i || y != j)
+                        cells[count++] = x*size + y;
+            result[cell] = Arrays.copyOf(cells, count);
+        }
 
-        return result;                       
+        return result;
     }
 
 //Method displays a board 
@@ -360,8 +1635,8 @@ private void displayBoard(Board board)
     {
         for (int j = 0; j < size; j++)
         {
-            writer.print(board.array[i][j]);
-            System.out.print(board.array[i][j]); // Print the cell value
+            writer.print(board.get(i, j));
+            System.out.print(board.get(i, j)); // Print the cell value
             if (j < size - 1) {
                 System.out.print(" | "); 
                 writer.print("|");
@@ -400,10 +1675,10 @@ private void displayBoard(Board board)
     //Method evaluates a board
     private int evaluate(Board board)
     {
-        if (computerWin(board))                    //utility is 4*size if computer wins
-            return 4*size;
-        else if (playerWin(board))                 //utility is -4*size if player wins
-            return -4*size;
+        if (computerWin(board))                    //utility is winValue (4*size when
+            return winValue;                       //whole lines win) if computer wins
+        else if (playerWin(board))                 //utility is -winValue if player wins
+            return -winValue;
         else if (draw(board))                      //utility is 3*size if draw
             return 3*size;
         else                            
@@ -414,169 +1689,17 @@ private void displayBoard(Board board)
     //Method counts possible ways a symbol can win
     private int count(Board board, char symbol)
     {
-        int answer = 0;
-
-        for (int i = 0; i < size; i++)
-            if (testRow(board, i, symbol))         //count winning rows   
-                answer++;
-
-        for (int i = 0; i < size; i++)
-            if (testColumn(board, i, symbol))      //count winning columns
-               answer++;
-
-        if (testLeftDiagonal(board, symbol))       //count winning left diagonal
-            answer++;
-
-        if (testRightDiagonal(board, symbol))      //count winning right diagonal
-            answer++;
-
-        return answer;
-    }
-
-    //Method checks whether a row is occupied by a symbol or empty
-    private boolean testRow(Board board, int i, char symbol)
-    {
-        for (int j = 0; j < size; j++)
-            if (board.array[i][j] != symbol && board.array[i][j] != EMPTY)
-                return false;
-
-        return true;
+        return symbol == COMPUTER ? board.computerOpen : board.playerOpen;
     }
 
-    //Method checks whether a column is occupied by a symbol or empty
-    private boolean testColumn(Board board, int i, char symbol)
-    {
-        for (int j = 0; j < size; j++)
-            if (board.array[j][i] != symbol && board.array[j][i] != EMPTY)
-                return false;
 
-        return true;
-    }
 
-    //Method checks whether left diagonal is occupied by a symbol or empty
-    private boolean testLeftDiagonal(Board board, char symbol)
-    {
-        for (int i = 0; i < size; i++)
-            if (board.array[i][i] != symbol && board.array[i][i] != EMPTY)
-               return false;
 
-        return true;
-    }
 
-    //Method checks whether right diagonal is occupied by a symbol or empty
-    private boolean testRightDiagonal(Board board, char symbol)
+    //Method returns score of a symbol in game: 2 per two in a row plus
+    //3 per three in a row, kept up to date move by move
+    private int calculateScore(char symbol)
     {
-        for (int i = 0; i < size; i++)
-            if (board.array[i][size-1-i] != symbol && board.array[i][size-1-i] != EMPTY)
-               return false;
-
-        return true;
-    }
-
-
-
-
-
-    private int calculateScore(char symbol) {
-        int p = 0; // Number of two consecutive pieces
-        int q = 0; // Number of three consecutive pieces
-    
-        // Loop through each row and column
-        for (int i = 0; i < size; i++) {
-            p += countConsecutive(i, -1, symbol, 2); // Count two consecutive in row
-            p += countConsecutive(-1, i, symbol, 2); // Count two consecutive in column
-            q += countConsecutive(i, -1, symbol, 3); // Count three consecutive in row
-            q += countConsecutive(-1, i, symbol, 3); // Count three consecutive in column
-        }
-    
-        // Count diagonals for two and three consecutive pieces
-        p += countDiagonalConsecutive(symbol, 2, true); // Count two consecutive in left diagonal
-        p += countDiagonalConsecutive(symbol, 2, false); // Count two consecutive in right diagonal
-        q += countDiagonalConsecutive(symbol, 3, true); // Count three consecutive in left diagonal
-        q += countDiagonalConsecutive(symbol, 3, false); // Count three consecutive in right diagonal
-    
-        // Calculate the score based on 2p + 3q
-        return 2 * p + 3 * q;
-    }
-    
-
-
-
-
-
-
-
-
-
-
-
-
-    private int countConsecutive(int row, int col, char symbol, int length) {
-        int count = 0;
-        int consecutive = 0;
-        // Horizontal check (if row is not -1)
-        if (row != -1) {
-            for (int j = 0; j < size; j++) {
-                if (board.array[row][j] == symbol) {
-                    consecutive++;
-                    if (consecutive == length) {
-                        count++;
-                        if (length == 3) { 
-                            j++;
-                        }
-                    }
-                } else {
-                    consecutive = 0;
-                }
-            }
-        }
-        // Reset for vertical check
-        consecutive = 0;
-        // Vertical check (if col is not -1)
-        if (col != -1) {
-            for (int i = 0; i < size; i++) {
-                if (board.array[i][col] == symbol) {
-                    consecutive++;
-                    if (consecutive == length) {
-                        count++;
-                        if (length == 4) { 
-                            i++;
-                        }
-                    }
-                } else {
-                    consecutive = 0;
-                }
-            }
-        }
-        return count;
+        return scores.score(symbol);
     }
-
-    // Count consecutive pieces diagonally
-    private int countDiagonalConsecutive(char symbol, int length, boolean leftDiagonal) {
-        int count = 0;
-        for (int i = 0; i < size; i++) {
-            int consecutive = 0;
-            for (int j = 0; j < size; j++) {
-                int x = i + (leftDiagonal ? j : -j);
-                int y = j;
-                if (x >= 0 && x < size && y >= 0 && y < size) {
-                    if (board.array[x][y] == symbol) {
-                        consecutive++;
-                        if (consecutive == length) {
-                            count++;
-                            break; // Move to next diagonal after finding a sequence
-                        }
-                    } else {
-                        consecutive = 0;
-                    }
-                }
-            }
-        }
-        return count;
-    }
-
-
-
-    
 }
-
@@ -1,6 +1,14 @@
 package program;
 //Tester program for tic-tac with min-max, depth limit, 
 //board evaluation, and alph-beta pruning
+//
+//usage: java program.AlphaBetaTester [options]
+//   -k <n>              symbols in a row to win (default whole line)
+//   -time <ms>          time per computer move (default 0, the engine default)
+//   -search <name>      ab, pvs, or mcts (default ab)
+//   -book <file>        opening book made by BookBuilder
+//   -tablebase <file>   tablebase made by TablebaseBuilder
+//   -ponder             search on the player's time
 import java.io.FileNotFoundException;
 import java.util.Scanner;
 public class AlphaBetaTester
@@ -8,6 +16,36 @@ public class AlphaBetaTester
    //main program for tester
    public static void main(String[] args) throws FileNotFoundException
    {
+      int inRow = 0;                                //options, defaults are
+      long moveTime = 0;                            //the plain game
+      String search = "ab";
+      String bookFile = null;
+      String tablebaseFile = null;
+      boolean ponder = false;
+
+      for (int k = 0; k < args.length; k++)
+      {
+         boolean value = k + 1 < args.length;      //option has a value after it
+         if (args[k].equals("-k") && value)
+            inRow = Integer.parseInt(args[++k]);
+         else if (args[k].equals("-time") && value)
+            moveTime = Long.parseLong(args[++k]);
+         else if (args[k].equals("-search") && value)
+            search = args[++k];
+         else if (args[k].equals("-book") && value)
+            bookFile = args[++k];
+         else if (args[k].equals("-tablebase") && value)
+            tablebaseFile = args[++k];
+         else if (args[k].equals("-ponder"))
+            ponder = true;
+         else
+         {
+            System.out.println("usage: java program.AlphaBetaTester [-k n] [-time ms] [-search ab|pvs|mcts]"
+                             + " [-book file] [-tablebase file] [-ponder]");
+            return;
+         }
+      }
+
       Scanner in = new Scanner(System.in);
 
       System.out.print("Enter the board size: ");
@@ -20,11 +58,26 @@ public class AlphaBetaTester
       System.out.print("Enter output file: ");
       String outputFile = in.nextLine();
 
+      if (inRow <= 0 || inRow > size)
+         inRow = size;
+
       
        //play tic-tac game
        
-       AlphaBeta a = new AlphaBeta(size,outputFile);
-	   a.play();
+       AlphaBeta a = new AlphaBeta(size,inRow,outputFile,moveTime);
+       a.setPrincipalVariation(search.equals("pvs"));
+       if (search.equals("mcts"))
+       {
+          MonteCarlo m = new MonteCarlo(size,inRow,moveTime);
+          m.setThreads(Runtime.getRuntime().availableProcessors());
+          a.setEngine(m);
+       }
+       if (bookFile != null && !a.setBook(bookFile))
+          System.out.println("No opening book for this board size in " + bookFile);
+       if (tablebaseFile != null && !a.setTablebase(tablebaseFile))
+          System.out.println("No tablebase for this board size in " + tablebaseFile);
+       a.setPondering(ponder);
+	   a.play(in);
 
       in.close();
    }
@@ -0,0 +1,237 @@
+package program;
+//Self-play arena for tic-tac engines: plays many games between two engine
+//settings on each board size, on a pool of threads, and reports win rates,
+//nodes per second, and average search depth of each engine
+//
+//usage: java program.Arena <engine> <engine> [games per size] [threads] [limits] [sizes...]
+//engines: ab (alpha-beta), pvs (principal variation search), mcts (Monte Carlo)
+//limits, separated by commas: <ms> per move for all engines, d<depth> for
+//alpha-beta engines, p<playouts> for Monte Carlo, k<length> to win with
+//length symbols in a row instead of a whole line
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+public class Arena
+{
+   private static final int OPENING = 2;           //random plies at start of each game
+   private static final char FIRST = '0';          //symbol that moves first, as in a game
+   private static final char SECOND = 'X';
+
+   //result of one game
+   private static class Game
+   {
+      private int winner;                          //0 or 1 for an engine, -1 for draw
+      private long[] moves = new long[2];          //searched moves of each engine
+      private long[] nodes = new long[2];          //nodes of each engine
+      private long[] nanos = new long[2];          //search time of each engine
+      private long[] depths = new long[2];         //sum of search depths of each engine
+   }
+
+   //two engines of a worker thread, kept between games of one size
+   private static class Players
+   {
+      private int size;
+      private Engine[] engines;
+      private int[][] lines;                       //cells of each line that wins
+   }
+
+   private static final ThreadLocal<Players> players = ThreadLocal.withInitial(Players::new);
+
+   //main program for arena
+   public static void main(String[] args) throws InterruptedException, ExecutionException
+   {
+      if (args.length < 2)
+      {
+         System.out.println("usage: java program.Arena <engine> <engine> [games per size] [threads]"
+                          + " [ms,d<depth>,p<playouts>,k<length>] [sizes...]");
+         return;
+      }
+
+      String[] names = { args[0], args[1] };
+      int games = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+      int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+      String limit = args.length > 4 ? args[4] : "20";
+      List<Integer> sizes = new ArrayList<Integer>();
+      for (int k = 5; k < args.length; k++)
+         sizes.add(Integer.parseInt(args[k]));
+      if (sizes.isEmpty())
+         sizes = List.of(3, 4, 5, 6);
+
+      for (String name : names)                    //check engine names before starting
+         engine(name, 3, limit);
+
+      ExecutorService pool = Executors.newFixedThreadPool(threads);
+      try {
+         for (int size : sizes)
+         {
+            List<Future<Game>> results = new ArrayList<Future<Game>>();
+            for (int g = 0; g < games; g++)
+            {
+               final int number = g;
+               results.add(pool.submit(() -> play(names, size, limit, number)));
+            }
+
+            Game total = new Game();
+            int[] wins = new int[3];               //wins of each engine, draws
+            for (Future<Game> result : results)
+            {
+               Game game = result.get();
+               wins[game.winner < 0 ? 2 : game.winner]++;
+               for (int e = 0; e < 2; e++)
+               {
+                  total.moves[e] += game.moves[e];
+                  total.nodes[e] += game.nodes[e];
+                  total.nanos[e] += game.nanos[e];
+                  total.depths[e] += game.depths[e];
+               }
+            }
+
+            System.out.printf("%dx%d: %d games, %s wins %.1f%%, %s wins %.1f%%, draws %.1f%%%n",
+                              size, size, games, names[0], 100.0 * wins[0] / games,
+                              names[1], 100.0 * wins[1] / games, 100.0 * wins[2] / games);
+            for (int e = 0; e < 2; e++)
+               System.out.printf("   %s: %d moves searched, %.0f nodes/sec, average depth %.2f, %.2f ms per move%n",
+                                 names[e], total.moves[e],
+                                 total.nanos[e] == 0 ? 0.0 : total.nodes[e] * 1e9 / total.nanos[e],
+                                 total.moves[e] == 0 ? 0.0 : (double) total.depths[e] / total.moves[e],
+                                 total.moves[e] == 0 ? 0.0 : total.nanos[e] / 1e6 / total.moves[e]);
+         }
+      } finally {
+         pool.shutdown();
+      }
+   }
+
+   //method plays one game; engines swap symbols every other game and the
+   //first plies are random so games differ
+   private static Game play(String[] names, int size, String limit, int number)
+   {
+      Players current = players.get();
+      if (current.engines == null || current.size != size)
+      {
+         current.size = size;
+         current.engines = new Engine[] { engine(names[0], size, limit), engine(names[1], size, limit) };
+         current.lines = AlphaBeta.lines(size, inRow(size, limit));
+      }
+
+      char[][] cells = new char[size][size];
+      for (char[] row : cells)
+         Arrays.fill(row, ' ');
+
+      Random random = new Random(number);
+      Game game = new Game();
+      int first = number % 2;                      //engine that moves first
+      char side = FIRST;
+
+      for (int ply = 0; ; ply++)
+      {
+         int e = side == FIRST ? first : 1 - first;
+         int i, j;
+
+         if (ply < OPENING)                        //random opening move
+         {
+            do {
+               i = random.nextInt(size);
+               j = random.nextInt(size);
+            } while (cells[i][j] != ' ');
+         }
+         else
+         {
+            SearchResult result = current.engines[e].bestMove(cells, side);
+            i = result.getRow();
+            j = result.getColumn();
+            if (!result.isBook())
+            {
+               game.moves[e]++;
+               game.nodes[e] += result.getNodes();
+               game.nanos[e] += result.getNanos();
+               game.depths[e] += result.getDepth();
+            }
+         }
+         cells[i][j] = side;
+
+         if (wins(cells, side, current.lines))
+         {
+            game.winner = ply < OPENING ? -1 : e;  //random wins are not counted
+            return game;
+         }
+         if (ply == size*size - 1)
+         {
+            game.winner = -1;
+            return game;
+         }
+
+         side = side == FIRST ? SECOND : FIRST;
+      }
+   }
+
+   //method makes an engine from its name and limits of each search
+   private static Engine engine(String name, int size, String limits)
+   {
+      long moveTime = 0;
+      int depth = 0;
+      int playouts = 0;
+      for (String limit : limits.split(","))
+         if (limit.startsWith("d"))
+            depth = Integer.parseInt(limit.substring(1));
+         else if (limit.startsWith("p"))
+            playouts = Integer.parseInt(limit.substring(1));
+         else if (!limit.startsWith("k"))
+            moveTime = Long.parseLong(limit);
+
+      if (name.equals("mcts"))
+      {
+         MonteCarlo engine = new MonteCarlo(size, inRow(size, limits), moveTime);
+         engine.setPlayouts(playouts);
+         return engine;
+      }
+
+      AlphaBeta engine = new AlphaBeta(size, inRow(size, limits), null, moveTime);
+      engine.setFixedDepth(depth);
+      engine.setVerbose(false);
+
+      switch (name)
+      {
+         case "ab":
+            break;
+         case "pvs":
+            engine.setPrincipalVariation(true);
+            break;
+         default:
+            throw new IllegalArgumentException("unknown engine " + name);
+      }
+
+      return engine;
+   }
+
+   //method returns symbols in a row that win on a board size: k<length>
+   //of the limits, at most the size, else a whole line
+   private static int inRow(int size, String limits)
+   {
+      for (String limit : limits.split(","))
+         if (limit.startsWith("k"))
+            return Math.min(size, Integer.parseInt(limit.substring(1)));
+      return size;
+   }
+
+   //method checks whether a symbol fills a line that wins
+   private static boolean wins(char[][] cells, char symbol, int[][] lines)
+   {
+      int size = cells.length;
+
+      for (int[] line : lines)
+      {
+         boolean full = true;
+         for (int cell : line)
+            full &= cells[cell / size][cell % size] == symbol;
+         if (full)
+            return true;
+      }
+
+      return false;
+   }
+}
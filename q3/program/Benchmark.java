@@ -0,0 +1,312 @@
+package program;
+//Benchmarks of the alpha-beta engine, for comparing changes to its search
+//and board representation. Every benchmark runs on fixed positions of each
+//board size: an opening, a midgame, and an endgame, made by random moves
+//from a fixed seed so each run sees the same positions. A benchmark runs
+//in a virtual machine of its own, so code compiled for one benchmark does
+//not change the next. It runs some warmup iterations first, then measured
+//iterations, and its times are written as CSV lines:
+//   search     root search at a fixed depth with a cleared table
+//   pvs        the same with principal variation search
+//   evaluate   evaluation of the board
+//   count      open lines of both symbols
+//   check      win test of both symbols
+//   place      placing and removing a symbol, in turn in each empty cell
+//Searches also report mean nodes, nodes per second, and bytes allocated per
+//node where the virtual machine counts them
+//
+//usage: java program.Benchmark [warmup] [iterations] [csv file, - for output] [sizes...]
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+public class Benchmark
+{
+   private static final long SEED = 20240215;      //seed of random positions
+   private static final int[] DEPTHS = { 0, 0, 0, 9, 8, 6, 5, 5, 4, 4, 4 };   //search depth per size
+   private static final String[] PHASES = { "opening", "midgame", "endgame" };
+   private static final double[] FILLED = { 0.15, 0.4, 0.7 };   //part of cells taken in each phase
+   private static final int CALLS = 1000000;       //calls per iteration of board benchmarks
+   private static final int TABLE_SIZE = 1 << 20;  //transposition table entries
+
+   private static int sink;                        //results, so calls are not left out
+
+   //main program for benchmarks; with -run as first argument it runs one
+   //benchmark in this virtual machine and prints its line
+   public static void main(String[] args) throws IOException, InterruptedException
+   {
+      if (args.length == 6 && args[0].equals("-run"))
+      {
+         run(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+             Integer.parseInt(args[4]), Integer.parseInt(args[5]));
+         return;
+      }
+
+      int warmup = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+      int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+      String file = args.length > 2 ? args[2] : "-";
+      List<Integer> sizes = new ArrayList<Integer>();
+      for (int k = 3; k < args.length; k++)
+         sizes.add(Integer.parseInt(args[k]));
+      if (sizes.isEmpty())
+         sizes = List.of(3, 4, 5, 6, 7);
+
+      PrintStream out = file.equals("-") ? System.out : new PrintStream(file);
+      out.println("benchmark,size,phase,depth,iterations,mean us,stddev us,min us,ops/s,nodes,nodes/s,bytes/node");
+
+      for (int size : sizes)
+      {
+         if (size < 3 || size >= DEPTHS.length)
+            throw new IllegalArgumentException("board size must be 3 to " + (DEPTHS.length - 1));
+
+         for (int phase = 0; phase < PHASES.length; phase++)
+            for (String name : new String[] { "search", "pvs", "evaluate", "count", "check", "place" })
+               out.println(fork(name, size, phase, warmup, iterations));
+      }
+
+      if (out != System.out)
+         out.close();
+   }
+
+   //method runs one benchmark in a new virtual machine with the class path
+   //of this one, returns its CSV line
+   private static String fork(String name, int size, int phase, int warmup, int iterations)
+      throws IOException, InterruptedException
+   {
+      String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+      ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                                                  "program.Benchmark", "-run", name, Integer.toString(size),
+                                                  Integer.toString(phase), Integer.toString(warmup),
+                                                  Integer.toString(iterations));
+      builder.redirectErrorStream(true);
+      Process process = builder.start();
+
+      String line = null;                          //last line is the result
+      try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream())))
+      {
+         String read;
+         while ((read = in.readLine()) != null)
+            line = read;
+      }
+
+      if (process.waitFor() != 0 || line == null)
+         throw new IllegalStateException("benchmark " + name + " of size " + size + " failed: " + line);
+      return line;
+   }
+
+   //method runs one benchmark on the position of a size and phase
+   private static void run(String name, int size, int phase, int warmup, int iterations)
+   {
+      Random random = new Random(SEED + 31*size + phase);
+      char[][] cells = new char[size][size];
+      char side = position(cells, FILLED[phase], random);
+
+      if (name.equals("search") || name.equals("pvs"))
+         search(System.out, name, cells, side, PHASES[phase], warmup, iterations);
+      else
+         board(System.out, name, cells, side, PHASES[phase], warmup, iterations);
+   }
+
+   //method fills cells with random moves until a part of them is taken and
+   //the game is not over, returns symbol to move; '0' moves first
+   private static char position(char[][] cells, double filled, Random random)
+   {
+      int size = cells.length;
+      int stones = Math.max(1, (int) Math.round(filled * size * size));
+      int[][] lines = AlphaBeta.lines(size, size);
+
+      while (true)
+      {
+         for (char[] row : cells)
+            Arrays.fill(row, ' ');
+
+         char side = '0';
+         boolean over = false;
+         for (int s = 0; s < stones && !over; s++)
+         {
+            int cell;
+            do {
+               cell = random.nextInt(size*size);
+            } while (cells[cell / size][cell % size] != ' ');
+
+            cells[cell / size][cell % size] = side;
+            over = wins(cells, side, lines);
+            side = side == '0' ? 'X' : '0';
+         }
+
+         if (!over)
+            return side;
+      }
+   }
+
+   //method benchmarks root search of a position at the fixed depth of its
+   //size. Each iteration has a new engine and a cleared table, so each
+   //searches the same nodes
+   private static void search(PrintStream out, String name, char[][] cells, char side, String phase,
+                              int warmup, int iterations)
+   {
+      int size = cells.length;
+      TranspositionTable table = new TranspositionTable(TABLE_SIZE);
+      long[] times = new long[iterations];
+      long nodes = 0;                              //totals of measured iterations
+      long bytes = 0;
+
+      for (int k = 0; k < warmup + iterations; k++)
+      {
+         table.clear();
+         AlphaBeta engine = new AlphaBeta(size, null, 0, table);
+         engine.setVerbose(false);
+         engine.setFixedDepth(DEPTHS[size]);
+         engine.setPrincipalVariation(name.equals("pvs"));
+         engine.setPosition(cells, side);
+
+         long before = allocated();
+         long start = System.nanoTime();
+         sink += engine.search();
+         long time = System.nanoTime() - start;
+         long after = allocated();
+
+         if (k >= warmup)
+         {
+            times[k - warmup] = time;
+            nodes += engine.getStatistics().getNodes();
+            bytes = before < 0 || bytes < 0 ? -1 : bytes + after - before;
+         }
+      }
+
+      long total = 0;
+      for (long time : times)
+         total += time;
+      String perNode = bytes < 0 ? "" : String.format(Locale.ROOT, "%.3f", (double) bytes / nodes);
+      out.println(line(name, size, phase, Integer.toString(DEPTHS[size]), times)
+                + String.format(Locale.ROOT, ",%.1f,%.0f,%.0f,%s", 1e9 / mean(times), (double) nodes / iterations,
+                                nodes * 1e9 / total, perNode));
+   }
+
+   //method benchmarks CALLS calls of a board method. Evaluate, count, and
+   //check take in turn the boards after each move of the position, so the
+   //calls cannot be moved out of the loop; place uses the position itself
+   private static void board(PrintStream out, String name, char[][] cells, char side, String phase,
+                             int warmup, int iterations)
+   {
+      int size = cells.length;
+      TranspositionTable table = new TranspositionTable(1);
+      AlphaBeta engine = new AlphaBeta(size, null, 0, table);
+      engine.setPosition(cells, side);
+
+      int[] empty = new int[size*size];            //empty cells for place
+      int count = 0;
+      for (int cell = 0; cell < size*size; cell++)
+         if (engine.empty(cell))
+            empty[count++] = cell;
+
+      AlphaBeta[] boards = new AlphaBeta[count];   //board after each move
+      for (int k = 0; k < count; k++)
+      {
+         boards[k] = new AlphaBeta(size, null, 0, table);
+         boards[k].setPosition(cells, side);
+         boards[k].place(empty[k], true);
+      }
+
+      long[] times = new long[iterations];
+      for (int k = 0; k < warmup + iterations; k++)
+      {
+         long start = System.nanoTime();
+         switch (name)
+         {
+            case "evaluate":
+               for (int c = 0; c < CALLS; c++)
+                  sink += boards[c % count].evaluate();
+               break;
+            case "count":
+               for (int c = 0; c < CALLS; c++)
+                  sink += boards[c % count].count('X') - boards[c % count].count('0');
+               break;
+            case "check":
+               for (int c = 0; c < CALLS; c++)
+                  if (boards[c % count].check('X') || boards[c % count].check('0'))
+                     sink++;
+               break;
+            default:
+               for (int c = 0; c < CALLS; c++)
+               {
+                  int cell = empty[c % count];
+                  engine.place(cell, true);
+                  engine.remove(cell, true);
+               }
+         }
+         long time = System.nanoTime() - start;
+
+         if (k >= warmup)
+            times[k - warmup] = time;
+      }
+
+      out.println(line(name, size, phase, "", times)
+                + String.format(Locale.ROOT, ",%.0f,,,", CALLS * 1e9 / mean(times)));
+   }
+
+   //method returns first columns of a CSV line: name, size, phase, depth,
+   //and statistics of iteration times in microseconds
+   private static String line(String name, int size, String phase, String depth, long[] times)
+   {
+      double mean = mean(times);
+      double squares = 0;
+      long min = Long.MAX_VALUE;
+      for (long time : times)
+      {
+         squares += (time - mean) * (time - mean);
+         min = Math.min(min, time);
+      }
+      double deviation = times.length > 1 ? Math.sqrt(squares / (times.length - 1)) : 0;
+
+      return String.format(Locale.ROOT, "%s,%d,%s,%s,%d,%.1f,%.1f,%.1f", name, size, phase, depth,
+                           times.length, mean / 1000, deviation / 1000, min / 1000.0);
+   }
+
+   //method returns mean of times
+   private static double mean(long[] times)
+   {
+      double sum = 0;
+      for (long time : times)
+         sum += time;
+      return sum / times.length;
+   }
+
+   //method returns bytes allocated by this thread so far, or -1 if the
+   //virtual machine does not count them or has no com.sun.management
+   private static long allocated()
+   {
+      try {
+         java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+         if (!(bean instanceof com.sun.management.ThreadMXBean))
+            return -1;
+         return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+      } catch (LinkageError | UnsupportedOperationException e) {
+         return -1;
+      }
+   }
+
+   //method checks whether a symbol fills a line
+   private static boolean wins(char[][] cells, char symbol, int[][] lines)
+   {
+      int size = cells.length;
+
+      for (int[] line : lines)
+      {
+         boolean full = true;
+         for (int cell : line)
+            full &= cells[cell / size][cell % size] == symbol;
+         if (full)
+            return true;
+      }
+
+      return false;
+   }
+}
@@ -0,0 +1,95 @@
+package program;
+//Builder of opening books for tic-tac: searches every board the computer
+//can face in the first plies of a game, one board of each set of
+//symmetric boards, and writes the best moves to a book file
+//
+//usage: java program.BookBuilder <size> <book file> [plies] [depth] [threads]
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.TreeMap;
+public class BookBuilder
+{
+   private static final int[] PLIES = { 0, 0, 0, 7, 5, 3, 3 };     //default plies per board size
+   private static final int[] DEPTHS = { 0, 0, 0, 9, 10, 8, 7 };   //default depth per board size
+
+   private AlphaBeta engine;                       //searches book boards
+   private int size;                               //board size
+   private int plies;                              //most symbols on a book board
+   private HashSet<Long> seen;                     //canonical keys of boards visited
+   private TreeMap<Long, Integer> entries;         //best move of each book board
+
+   //main program for builder
+   public static void main(String[] args) throws IOException
+   {
+      if (args.length < 2)
+      {
+         System.out.println("usage: java program.BookBuilder <size> <book file> [plies] [depth] [threads]");
+         return;
+      }
+
+      int size = Integer.parseInt(args[0]);
+      if (size < 3 || size >= PLIES.length)
+      {
+         System.out.println("Board size must be 3 to " + (PLIES.length - 1));
+         return;
+      }
+
+      int plies = args.length > 2 ? Integer.parseInt(args[2]) : PLIES[size];
+      int depth = args.length > 3 ? Integer.parseInt(args[3]) : DEPTHS[size];
+      int threads = args.length > 4 ? Integer.parseInt(args[4])
+                                    : Runtime.getRuntime().availableProcessors();
+
+      long start = System.nanoTime();
+      BookBuilder builder = new BookBuilder(size, plies, depth, threads);
+      builder.visit(0);
+      OpeningBook.write(args[1], size, plies, builder.entries);
+
+      System.out.printf("%dx%d book: %d boards up to %d plies at depth %d, %.1f s%n", size, size,
+                        builder.entries.size(), plies, depth, (System.nanoTime() - start) / 1e9);
+   }
+
+   //Constructor of BookBuilder class
+   private BookBuilder(int size, int plies, int depth, int threads)
+   {
+      this.engine = new AlphaBeta(size, null, 0);
+      this.engine.setFixedDepth(depth);            //same book for any threads
+      this.engine.setPrincipalVariation(true);
+      this.engine.setThreads(threads);
+      this.engine.setVerbose(false);
+      this.size = size;
+      this.plies = plies;
+      this.seen = new HashSet<Long>();
+      this.entries = new TreeMap<Long, Integer>();
+   }
+
+   //method visits game board after a number of plies: player moves on even
+   //plies and computer on odd plies, as in a game the player starts
+   private void visit(int ply)
+   {
+      if (!seen.add(engine.canonicalKey()) || engine.over())
+         return;                                   //symmetric board done before
+
+      boolean computer = ply % 2 == 1;
+      if (computer)
+         search(ply);
+      if (ply == plies)
+         return;
+
+      for (int cell = 0; cell < size*size; cell++)
+         if (engine.empty(cell))
+         {
+            engine.place(cell, computer);
+            visit(ply + 1);
+            engine.remove(cell, computer);
+         }
+   }
+
+   //method searches game board for computer and adds it to book
+   private void search(int ply)
+   {
+      int move = engine.search();
+      entries.put(engine.canonicalKey(), engine.canonicalMove(move));
+      if (entries.size() % 100 == 0)
+         System.out.println(entries.size() + " boards searched, ply " + ply);
+   }
+}
@@ -0,0 +1,8 @@
+package program;
+//Engine that chooses moves of tic-tac. Cells of a position hold 'X', '0',
+//or ' ' and side is the symbol to move
+public interface Engine
+{
+    //Method finds best move of a side in a position
+    SearchResult bestMove(char[][] cells, char side);
+}
@@ -0,0 +1,373 @@
+package program;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//Game server for tic-tac: plays many games at once over a line protocol on
+//a local TCP port. One selector thread reads and writes every connection
+//and requests run on a pool of worker threads. A session has one request
+//running at a time, so the AlphaBeta of its game is used by one thread at
+//a time. Games of a board size and rule share one transposition table,
+//which is safe to use from many threads. Each engine move has a deadline
+//counted from when its request arrived. A GO that has waited past its
+//deadline gets an error and no move; otherwise the search stops at the
+//deadline, but its first iteration and threat search always finish, so a
+//move can take longer on large boards
+//
+//Requests, one per line; the player ('0') moves first, the engine is 'X':
+//   NEW <size> [<k>]    start a new game, k in a row   -> OK
+//                       win (default whole line)
+//   MOVE <row> <col>    make player move               -> OK, or OVER <X|0|DRAW>
+//   GO [ms]             make engine move within ms     -> MOVE <row> <col>, with
+//                                                         OVER <X|0|DRAW> if game ended,
+//                                                         ERROR if ms passed before start
+//   CLOSE               end session                    -> BYE
+//A bad request gets ERROR <message>
+//
+//usage: java program.GameServer [port] [workers] [default ms] [max ms]
+public class GameServer
+{
+    private static final int MIN_SIZE = 3;         //board sizes served
+    private static final int MAX_SIZE = 10;
+    private static final int TABLE_SIZE = 1 << 20; //table entries per board size
+    private static final int MAX_LINE = 256;       //longest request
+
+    //Request class (inner class): a request line and when it arrived
+    private static class Request
+    {
+        private final String line;
+        private final long received;               //System.nanoTime() on arrival
+
+        private Request(String line, long received)
+        {
+            this.line = line;
+            this.received = received;
+        }
+    }
+
+    //Session class (inner class): a connection and its game
+    private class Session
+    {
+        private final SocketChannel channel;
+        private final ByteBuffer input = ByteBuffer.allocate(1024);
+        private final StringBuilder partial = new StringBuilder();   //line read so far
+        private final Queue<Request> pending = new ArrayDeque<Request>();
+        private final Queue<ByteBuffer> output = new ArrayDeque<ByteBuffer>();
+        private boolean busy;                      //a request is running
+        private boolean closing;                   //close after output is written
+
+        private AlphaBeta game;                    //engine and board of game, or null
+        private int size;                          //board size of game
+        private boolean playerTurn;                //player is to move
+        private boolean over;                      //game has ended
+
+        //Constructor of Session class
+        private Session(SocketChannel channel)
+        {
+            this.channel = channel;
+        }
+
+        //Method runs a request on a worker thread and returns response
+        private String handle(Request request)
+        {
+            String[] tokens = request.line.trim().split("\\s+");
+            try {
+                switch (tokens[0].toUpperCase())
+                {
+                    case "NEW":
+                        int size = Integer.parseInt(tokens[1]);
+                        return start(size, tokens.length > 2 ? Integer.parseInt(tokens[2]) : size);
+                    case "MOVE":
+                        return move(Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2]));
+                    case "GO":
+                        return go(tokens.length > 1 ? Long.parseLong(tokens[1]) : defaultTime, request.received);
+                    case "CLOSE":
+                        closing = true;
+                        return "BYE";
+                    default:
+                        return "ERROR unknown request";
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                return "ERROR bad request";
+            }
+        }
+
+        //Method starts a new game where inRow symbols in a row win
+        private String start(int size, int inRow)
+        {
+            if (size < MIN_SIZE || size > MAX_SIZE)
+                return "ERROR size must be " + MIN_SIZE + " to " + MAX_SIZE;
+            if (inRow < 1 || inRow > size)
+                return "ERROR symbols in a row must be 1 to " + size;
+
+            TranspositionTable table = tables.computeIfAbsent(size * (MAX_SIZE + 1) + inRow,
+                                                              rule -> new TranspositionTable(TABLE_SIZE));
+            game = new AlphaBeta(size, inRow, null, defaultTime, table);
+            game.setVerbose(false);
+            this.size = size;
+            playerTurn = true;
+            over = false;
+            return "OK";
+        }
+
+        //Method makes player move
+        private String move(int i, int j)
+        {
+            if (game == null || over)
+                return "ERROR no game";
+            if (!playerTurn)
+                return "ERROR engine is to move";
+            if (i < 0 || i >= size || j < 0 || j >= size || !game.empty(i*size + j))
+                return "ERROR cell is not empty";
+
+            game.place(i*size + j, false);
+            playerTurn = false;
+            return end() ? "OVER " + result() : "OK";
+        }
+
+        //Method makes engine move within time left before deadline
+        private String go(long time, long received)
+        {
+            if (game == null || over)
+                return "ERROR no game";
+            if (playerTurn)
+                return "ERROR player is to move";
+
+            long left = Math.min(time, maxTime) - (System.nanoTime() - received) / 1000000;
+            if (left <= 0)                         //waited past deadline: engine
+                return "ERROR deadline passed";    //is still to move
+            game.setMoveTime(left);                //first iteration always finishes
+            int move = game.respond();
+            playerTurn = true;
+
+            String response = "MOVE " + move / size + " " + move % size;
+            return end() ? response + " OVER " + result() : response;
+        }
+
+        //Method checks whether game has ended
+        private boolean end()
+        {
+            over = game.over();
+            return over;
+        }
+
+        //Method returns winner of an ended game
+        private String result()
+        {
+            char winner = game.winner();
+            return winner == ' ' ? "DRAW" : String.valueOf(winner);
+        }
+    }
+
+    //Completion class (inner class): response of a finished request
+    private static class Completion
+    {
+        private final Session session;
+        private final String response;
+
+        private Completion(Session session, String response)
+        {
+            this.session = session;
+            this.response = response;
+        }
+    }
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final ExecutorService workers;         //run requests
+    private final Queue<Completion> completed;     //responses for selector thread to send
+    private final ConcurrentHashMap<Integer, TranspositionTable> tables;   //table per board size
+                                                                          //and symbols in a row
+    private final long defaultTime;                //ms per engine move if GO gives none
+    private final long maxTime;                    //most ms per engine move
+
+    //main program for server
+    public static void main(String[] args) throws IOException
+    {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 4040;
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long defaultTime = args.length > 2 ? Long.parseLong(args[2]) : 100;
+        long maxTime = args.length > 3 ? Long.parseLong(args[3]) : 5000;
+
+        GameServer server = new GameServer(port, workers, defaultTime, maxTime);
+        System.out.println("Game server on port " + port + " with " + workers + " workers");
+        server.run();
+    }
+
+    //Constructor of GameServer class
+    public GameServer(int port, int workers, long defaultTime, long maxTime) throws IOException
+    {
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        this.server.bind(new InetSocketAddress("localhost", port), 1024);
+        this.server.configureBlocking(false);
+        this.server.register(selector, SelectionKey.OP_ACCEPT);
+
+        this.workers = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "game-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.completed = new ConcurrentLinkedQueue<Completion>();
+        this.tables = new ConcurrentHashMap<Integer, TranspositionTable>();
+        this.defaultTime = defaultTime;
+        this.maxTime = maxTime;
+    }
+
+    //Method serves connections until the thread is interrupted
+    public void run() throws IOException
+    {
+        while (!Thread.currentThread().isInterrupted())
+        {
+            selector.select();
+
+            Completion completion;                 //send responses of finished requests
+            while ((completion = completed.poll()) != null)
+            {
+                Session session = completion.session;
+                session.busy = false;
+                send(session, completion.response);
+                dispatch(session);
+            }
+
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext())
+            {
+                SelectionKey key = keys.next();
+                keys.remove();
+
+                try {
+                    if (!key.isValid())
+                        continue;
+                    if (key.isAcceptable())
+                        accept();
+                    else
+                    {
+                        if (key.isReadable())
+                            read(key);
+                        if (key.isValid() && key.isWritable())
+                            write(key);
+                    }
+                } catch (IOException e) {
+                    close(key);                    //connection failed
+                }
+            }
+        }
+    }
+
+    //Method accepts a new connection
+    private void accept() throws IOException
+    {
+        SocketChannel channel = server.accept();
+        if (channel == null)
+            return;
+
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_READ, new Session(channel));
+    }
+
+    //Method reads request lines of a connection
+    private void read(SelectionKey key) throws IOException
+    {
+        Session session = (Session) key.attachment();
+        session.input.clear();
+        int count = session.channel.read(session.input);
+        if (count < 0)
+        {
+            close(key);
+            return;
+        }
+
+        long now = System.nanoTime();
+        session.input.flip();
+        while (session.input.hasRemaining())
+        {
+            char c = (char) session.input.get();
+            if (c == '\n')
+            {
+                String line = session.partial.toString().trim();
+                session.partial.setLength(0);
+                if (!line.isEmpty())
+                    session.pending.add(new Request(line, now));
+            }
+            else if (session.partial.length() < MAX_LINE)
+                session.partial.append(c);
+        }
+
+        dispatch(session);
+    }
+
+    //Method writes waiting output of a connection
+    private void write(SelectionKey key) throws IOException
+    {
+        Session session = (Session) key.attachment();
+
+        while (!session.output.isEmpty())
+        {
+            ByteBuffer buffer = session.output.peek();
+            session.channel.write(buffer);
+            if (buffer.hasRemaining())
+                return;                            //socket is full, wait
+            session.output.poll();
+        }
+
+        key.interestOps(SelectionKey.OP_READ);
+        if (session.closing)
+            close(key);
+    }
+
+    //Method starts next request of a session if none is running
+    private void dispatch(Session session)
+    {
+        if (session.busy || session.closing || session.pending.isEmpty())
+            return;
+
+        Request request = session.pending.poll();
+        session.busy = true;
+        workers.execute(() -> {
+            String response = "ERROR request failed";
+            try {
+                response = session.handle(request);
+            } catch (Throwable e) {                //any failure must still end request,
+                response = "ERROR " + e;           //or session stays busy for good
+            } finally {
+                completed.add(new Completion(session, response));
+                selector.wakeup();
+            }
+        });
+    }
+
+    //Method queues a response line of a session for writing
+    private void send(Session session, String response)
+    {
+        SelectionKey key = session.channel.keyFor(selector);
+        if (key == null || !key.isValid())
+            return;                                //connection closed meanwhile
+
+        session.output.add(ByteBuffer.wrap((response + "\n").getBytes(StandardCharsets.US_ASCII)));
+        key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    //Method closes a connection
+    private void close(SelectionKey key)
+    {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            //connection is gone either way
+        }
+    }
+}
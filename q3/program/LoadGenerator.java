@@ -0,0 +1,247 @@
+package program;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+
+//Load generator for GameServer: keeps many sessions playing games at once,
+//each player move a random empty cell followed by an engine move, for a
+//number of seconds. Reports requests per second and latency percentiles
+//of each kind of request. A GO that waited past its deadline in the
+//server is counted as missed and sent again
+//
+//usage: java program.LoadGenerator [port] [sessions] [seconds] [size] [ms]
+public class LoadGenerator
+{
+    private static final int NEW = 0;              //kinds of requests
+    private static final int MOVE = 1;
+    private static final int GO = 2;
+    private static final int CLOSE = 3;
+    private static final String[] NAMES = { "NEW", "MOVE", "GO", "CLOSE" };
+
+    //Client class (inner class): a session and its game
+    private class Client
+    {
+        private final SocketChannel channel;
+        private final ByteBuffer input = ByteBuffer.allocate(256);
+        private final StringBuilder partial = new StringBuilder();   //line read so far
+        private final boolean[] taken = new boolean[size*size];       //cells used in game
+        private int kind;                          //kind of request waiting for response
+        private long sent;                         //System.nanoTime() request was sent
+
+        //Constructor of Client class
+        private Client(SocketChannel channel)
+        {
+            this.channel = channel;
+        }
+    }
+
+    private final int size;                        //board size of games
+    private final long moveTime;                   //ms per engine move
+    private final long end;                        //System.nanoTime() to stop new games
+    private final Random random = new Random();
+    private final long[][] latencies = new long[4][1024];   //ns per request of each kind
+    private final int[] counts = new int[4];       //requests of each kind
+    private int games;                             //games finished
+    private int errors;                            //ERROR responses
+    private int missed;                            //GO requests past their deadline
+
+    //main program for load generator
+    public static void main(String[] args) throws IOException
+    {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 4040;
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int size = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        long moveTime = args.length > 4 ? Long.parseLong(args[4]) : 20;
+
+        LoadGenerator generator = new LoadGenerator(size, moveTime, seconds);
+        long start = System.nanoTime();
+        generator.run(port, sessions);
+        generator.report((System.nanoTime() - start) / 1e9);
+    }
+
+    //Constructor of LoadGenerator class
+    private LoadGenerator(int size, long moveTime, int seconds)
+    {
+        this.size = size;
+        this.moveTime = moveTime;
+        this.end = System.nanoTime() + seconds * 1000000000L;
+    }
+
+    //Method connects sessions and plays games until time is up and every
+    //session is closed
+    private void run(int port, int sessions) throws IOException
+    {
+        Selector selector = Selector.open();
+        for (int k = 0; k < sessions; k++)
+        {
+            SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", port));
+            channel.configureBlocking(false);
+            Client client = new Client(channel);
+            channel.register(selector, SelectionKey.OP_READ, client);
+            send(client, NEW, "NEW " + size);
+        }
+
+        int open = sessions;
+        while (open > 0)
+        {
+            selector.select();
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext())
+            {
+                SelectionKey key = keys.next();
+                keys.remove();
+
+                Client client = (Client) key.attachment();
+                client.input.clear();
+                if (client.channel.read(client.input) < 0)
+                {
+                    key.cancel();
+                    client.channel.close();
+                    open--;
+                    continue;
+                }
+
+                client.input.flip();
+                while (client.input.hasRemaining())
+                {
+                    char c = (char) client.input.get();
+                    if (c != '\n')
+                    {
+                        client.partial.append(c);
+                        continue;
+                    }
+
+                    String line = client.partial.toString();
+                    client.partial.setLength(0);
+                    if (!respond(client, line))
+                    {
+                        key.cancel();
+                        client.channel.close();
+                        open--;
+                    }
+                }
+            }
+        }
+    }
+
+    //Method records a response and sends next request of a session,
+    //returns false once the session is closed
+    private boolean respond(Client client, String line) throws IOException
+    {
+        long latency = System.nanoTime() - client.sent;
+        int kind = client.kind;
+        if (counts[kind] == latencies[kind].length)
+            latencies[kind] = Arrays.copyOf(latencies[kind], 2 * counts[kind]);
+        latencies[kind][counts[kind]++] = latency;
+
+        String[] tokens = line.split(" ");
+        if (kind == GO && line.equals("ERROR deadline passed"))
+        {
+            missed++;                              //server was too busy: ask again
+            send(client, GO, "GO " + moveTime);
+            return true;
+        }
+        if (tokens[0].equals("ERROR"))
+        {
+            errors++;
+            System.out.println("Server error: " + line);
+            send(client, CLOSE, "CLOSE");
+            return true;
+        }
+
+        switch (kind)
+        {
+            case NEW:                              //OK: make first move
+                Arrays.fill(client.taken, false);
+                playerMove(client);
+                break;
+            case MOVE:                             //OK, or OVER: game ended
+                if (tokens[0].equals("OVER"))
+                    nextGame(client);
+                else
+                    send(client, GO, "GO " + moveTime);
+                break;
+            case GO:                               //MOVE i j, then OVER if game ended
+                client.taken[Integer.parseInt(tokens[1]) * size + Integer.parseInt(tokens[2])] = true;
+                if (tokens.length > 3)
+                    nextGame(client);
+                else
+                    playerMove(client);
+                break;
+            default:                               //BYE
+                return false;
+        }
+
+        return true;
+    }
+
+    //Method sends a player move to a random empty cell
+    private void playerMove(Client client) throws IOException
+    {
+        int cell;
+        do
+        {
+            cell = random.nextInt(size*size);
+        } while (client.taken[cell]);
+
+        client.taken[cell] = true;
+        send(client, MOVE, "MOVE " + cell / size + " " + cell % size);
+    }
+
+    //Method starts another game, or closes the session when time is up
+    private void nextGame(Client client) throws IOException
+    {
+        games++;
+        if (System.nanoTime() < end)
+            send(client, NEW, "NEW " + size);
+        else
+            send(client, CLOSE, "CLOSE");
+    }
+
+    //Method sends a request of a kind; requests are short, so the socket
+    //takes them whole
+    private void send(Client client, int kind, String request) throws IOException
+    {
+        client.kind = kind;
+        client.sent = System.nanoTime();
+        ByteBuffer buffer = ByteBuffer.wrap((request + "\n").getBytes(StandardCharsets.US_ASCII));
+        while (buffer.hasRemaining())
+            client.channel.write(buffer);
+    }
+
+    //Method prints throughput and latency percentiles
+    private void report(double seconds)
+    {
+        int total = 0;
+        for (int count : counts)
+            total += count;
+
+        System.out.printf("%d requests in %.1f s: %.0f requests/s, %d games, %d errors, %d missed deadlines%n",
+                          total, seconds, total / seconds, games, errors, missed);
+        for (int kind = 0; kind < 4; kind++)
+        {
+            if (counts[kind] == 0)
+                continue;
+
+            long[] sorted = Arrays.copyOf(latencies[kind], counts[kind]);
+            Arrays.sort(sorted);
+            System.out.printf("%-6s %8d   p50 %8.2f ms   p90 %8.2f ms   p99 %8.2f ms%n", NAMES[kind], counts[kind],
+                              percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99));
+        }
+    }
+
+    //Method returns a percentile of sorted latencies in ms
+    private static double percentile(long[] sorted, int percent)
+    {
+        int k = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, k)] / 1e6;
+    }
+}
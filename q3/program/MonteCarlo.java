@@ -0,0 +1,420 @@
+package program;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+//This program chooses tic-tac moves by Monte Carlo tree search with UCT.
+//Each playout walks down the tree by the UCT rule, adds children to a node
+//visited often enough, and finishes the game with random moves. Tree nodes
+//are kept in arrays of a pool sized before each search from its budget,
+//and grown when a search fills it. Each thread plays out on its own
+//copy of the board, so playouts allocate nothing. Threads share one tree:
+//a thread counts its visit to each node on the way down and adds the
+//result on the way back, so until then the visit counts as a loss (virtual
+//loss) and other threads tend to walk elsewhere
+public class MonteCarlo implements Engine
+{
+    private final char EMPTY = ' ';                //empty slot
+    private final char COMPUTER = 'X';             //computer
+    private final char PLAYER = '0';               //player
+    private final long MOVE_TIME = 1000;           //default time per move (ms)
+    private final int MIN_POOL = 1 << 12;          //fewest tree nodes in pool
+    private final int MAX_POOL = 1 << 21;          //most tree nodes in pool
+    private final int NODES_PER_MS = 2048;         //tree nodes one thread adds per ms,
+                                                   //a bit above the most measured
+    private final int EXPAND = 4;                  //visits before a node gets children
+    private final double EXPLORATION = 1.4;        //weight of exploration term of UCT
+    private final int UNEXPANDED = 0;              //states of a node
+    private final int EXPANDING = 1;
+    private final int EXPANDED = 2;
+
+    //Walker class (inner class): board and path of one search thread.
+    //Side 0 is the side to move at root, side 1 its opponent
+    private class Walker
+    {
+        private int[] counts;                      //symbols of each side in each line
+        private int[] empty;                       //empty cells, first emptyCount used
+        private int[] where;                       //position of each cell in empty
+        private int emptyCount;                    //number of empty cells
+        private int[] path;                        //nodes from root to current node
+        private long random;                       //state of random number generator
+
+        //Constructor of Walker class
+        private Walker(long seed)
+        {
+            counts = new int[2*lineCount];
+            empty = new int[size*size];
+            where = new int[size*size];
+            path = new int[size*size + 1];
+            random = seed | 1;
+        }
+
+        //Method copies root board
+        private void reset()
+        {
+            System.arraycopy(rootCounts, 0, counts, 0, counts.length);
+            System.arraycopy(rootEmpty, 0, empty, 0, rootEmptyCount);
+            System.arraycopy(rootWhere, 0, where, 0, where.length);
+            emptyCount = rootEmptyCount;
+        }
+
+        //Method puts a symbol of a side in an empty cell, returns true if
+        //it completes a line
+        private boolean place(int cell, int side)
+        {
+            int last = empty[--emptyCount];        //take cell out of empty cells
+            int k = where[cell];
+            empty[k] = last;
+            where[last] = k;
+
+            boolean win = false;
+            for (int line : cellLines[cell])
+                if (++counts[side*lineCount + line] == inRow)
+                    win = true;
+            return win;
+        }
+
+        //Method plays one playout and adds its result to nodes on its path
+        private void playout()
+        {
+            reset();
+            int node = 0;
+            int depth = 0;
+            int side = 0;                          //side to move
+            int winner = -1;                       //side that won, -1 for none yet
+            path[0] = 0;
+            visits.getAndIncrement(0);
+
+            while (true)                           //walk down tree
+            {
+                if (state.get(node) != EXPANDED)
+                {
+                    if (visits.get(node) < EXPAND || !expand(node))
+                        break;
+                }
+
+                int child = select(node);
+                node = child;
+                path[++depth] = node;
+                visits.getAndIncrement(node);      //visit counts as a loss for now
+
+                if (place(move[node], side))
+                {
+                    winner = side;
+                    break;
+                }
+                side = 1 - side;
+                if (emptyCount == 0)
+                    break;
+            }
+
+            if (depth > maxDepth.get())
+                maxDepth.accumulateAndGet(depth, Math::max);
+
+            if (winner < 0 && emptyCount > 0)      //finish game with random moves
+                winner = finish(side);
+
+            for (int d = 1; d <= depth; d++)       //add result for side that moved
+            {                                      //into each node: 2 win, 1 draw
+                int mover = (d - 1) & 1;
+                score.getAndAdd(path[d], winner < 0 ? 1 : winner == mover ? 2 : 0);
+            }
+            score.getAndAdd(0, winner < 0 ? 1 : winner == 1 ? 2 : 0);
+        }
+
+        //Method plays random moves until a side wins or board is full,
+        //returns winning side or -1 for a draw
+        private int finish(int side)
+        {
+            while (emptyCount > 0)
+            {
+                int cell = empty[next(emptyCount)];
+                if (place(cell, side))
+                    return side;
+                side = 1 - side;
+            }
+
+            return -1;
+        }
+
+        //Method chooses a child of a node by UCT, unvisited children first
+        private int select(int node)
+        {
+            int first = firstChild[node];
+            int count = childCount[node];
+            double logVisits = Math.log(Math.max(1, visits.get(node)));
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            int start = next(count);               //begin at a random child so
+                                                   //unvisited children are tried
+            for (int c = 0; c < count; c++)        //in random order
+            {
+                int child = first + (start + c) % count;
+                int n = visits.get(child);
+                if (n == 0)
+                    return child;
+
+                double value = score.get(child) / (2.0*n)
+                             + EXPLORATION * Math.sqrt(logVisits / n);
+                if (value > bestValue)
+                {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+
+            return best;
+        }
+
+        //Method adds children for empty cells to a node, returns false if
+        //another thread is adding them or the pool is full
+        private boolean expand(int node)
+        {
+            if (!state.compareAndSet(node, UNEXPANDED, EXPANDING))
+                return state.get(node) == EXPANDED;
+
+            int first = poolSize;                  //take no more nodes once pool is full
+            if (next.get() + emptyCount <= poolSize)
+                first = next.getAndAdd(emptyCount);
+            if (first + emptyCount > poolSize)
+            {
+                state.set(node, UNEXPANDED);       //pool is full: node stays a leaf
+                full = true;
+                return false;
+            }
+
+            for (int c = 0; c < emptyCount; c++)
+            {
+                int child = first + c;
+                move[child] = empty[c];
+                firstChild[child] = 0;
+                childCount[child] = 0;
+                visits.set(child, 0);
+                score.set(child, 0);
+                state.set(child, UNEXPANDED);
+            }
+            firstChild[node] = first;
+            childCount[node] = emptyCount;
+            state.set(node, EXPANDED);             //publish children
+
+            return true;
+        }
+
+        //Method returns a random number from 0 to bound-1 (xorshift)
+        private int next(int bound)
+        {
+            random ^= random << 13;
+            random ^= random >>> 7;
+            random ^= random << 17;
+            return (int) ((random >>> 33) % bound);
+        }
+    }
+
+    private int size;                              //size of board
+    private int inRow;                             //symbols in a row that win
+    private int lineCount;                         //number of lines of inRow cells
+    private int[][] cellLines;                     //lines thru each cell
+    private long moveTime;                         //time budget per move (ms)
+    private int playouts;                          //playouts per move, 0 to use time
+    private Walker[] walkers;                      //state of each search thread
+    private ExecutorService pool;                  //runs helper search threads
+
+    private int poolSize;                          //number of nodes in pool
+    private volatile boolean full;                 //last search ran out of nodes
+    private int[] move;                            //cell of move into each node
+    private int[] firstChild;                      //first child of each node
+    private int[] childCount;                      //number of children of each node
+    private AtomicIntegerArray visits;             //visits of each node
+    private AtomicIntegerArray score;              //2 per win, 1 per draw for side
+                                                   //that moved into node
+    private AtomicIntegerArray state;              //expansion state of each node
+    private AtomicInteger next;                    //first free node of pool
+    private AtomicInteger started;                 //playouts started for current move
+    private AtomicInteger maxDepth;                //deepest node reached
+    private volatile boolean stopped;              //time budget is used up
+
+    private int[] rootCounts;                      //line counts of root board
+    private int[] rootEmpty;                       //empty cells of root board
+    private int[] rootWhere;                       //position of each cell in rootEmpty
+    private int rootEmptyCount;                    //number of empty cells of root board
+
+    //Constructor of MonteCarlo class with time per move in milliseconds,
+    //0 for the default
+    public MonteCarlo(int size, long moveTime)
+    {
+        this(size, size, moveTime);
+    }
+
+    //Constructor of MonteCarlo class where inRow symbols in a row, column,
+    //or any diagonal win instead of a whole line
+    public MonteCarlo(int size, int inRow, long moveTime)
+    {
+        if (inRow < 1 || inRow > size)
+            throw new IllegalArgumentException("symbols in a row must be 1 to " + size);
+
+        this.size = size;
+        this.inRow = inRow;
+        this.moveTime = moveTime > 0 ? moveTime : MOVE_TIME;
+        int[][] lines = AlphaBeta.lines(size, inRow);   //same lines as alpha-beta
+        this.lineCount = lines.length;
+        this.cellLines = AlphaBeta.linesThrough(lines, size*size);
+
+        this.next = new AtomicInteger();
+        this.started = new AtomicInteger();
+        this.maxDepth = new AtomicInteger();
+
+        this.rootCounts = new int[2*lineCount];
+        this.rootEmpty = new int[size*size];
+        this.rootWhere = new int[size*size];
+
+        setThreads(1);
+    }
+
+    //Method sets number of search threads, which share one tree
+    public void setThreads(int threads)
+    {
+        if (pool != null)
+            pool.shutdownNow();
+        pool = null;
+
+        walkers = new Walker[Math.max(1, threads)];
+        for (int k = 0; k < walkers.length; k++)
+            walkers[k] = new Walker(0x9E3779B97F4A7C15L * (k + 1));
+
+        if (walkers.length > 1)
+            pool = Executors.newFixedThreadPool(walkers.length - 1, runnable -> {
+                Thread thread = new Thread(runnable, "montecarlo-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    //Method sets number of playouts per move instead of the time budget,
+    //0 to use time again
+    public void setPlayouts(int playouts)
+    {
+        this.playouts = playouts;
+    }
+
+    //Method finds best move of a side in a position: the root child with
+    //most visits. Value is percent of playouts won by side to move (a draw
+    //counts half), depth is deepest tree node reached, nodes are playouts
+    public SearchResult bestMove(char[][] cells, char side)
+    {
+        if (side != COMPUTER && side != PLAYER)
+            throw new IllegalArgumentException("side must be " + COMPUTER + " or " + PLAYER);
+
+        Arrays.fill(rootCounts, 0);      //set up root board
+        rootEmptyCount = 0;
+        boolean over = false;
+        for (int cell = 0; cell < size*size; cell++)
+        {
+            char symbol = cells[cell / size][cell % size];
+            if (symbol == EMPTY)
+            {
+                rootWhere[cell] = rootEmptyCount;
+                rootEmpty[rootEmptyCount++] = cell;
+            }
+            else if (symbol == COMPUTER || symbol == PLAYER)
+            {
+                int owner = symbol == side ? 0 : 1;
+                for (int line : cellLines[cell])
+                    if (++rootCounts[owner*lineCount + line] == inRow)
+                        over = true;
+            }
+            else
+                throw new IllegalArgumentException("bad symbol '" + symbol + "' in cell "
+                                                   + cell / size + " " + cell % size);
+        }
+        if (over || rootEmptyCount == 0)
+            throw new IllegalArgumentException("game is already over");
+
+        long start = System.nanoTime();
+        long deadline = start + moveTime * 1000000L;
+
+        sizePool();
+        next.set(1);                               //new tree with only a root
+        firstChild[0] = childCount[0] = 0;
+        visits.set(0, 0);
+        score.set(0, 0);
+        state.set(0, UNEXPANDED);
+        started.set(0);
+        maxDepth.set(0);
+        stopped = false;
+
+        ArrayList<Future<?>> helpers = new ArrayList<Future<?>>();
+        for (int t = 1; t < walkers.length; t++)
+        {
+            Walker helper = walkers[t];
+            helpers.add(pool.submit(() -> run(helper, deadline)));
+        }
+        run(walkers[0], deadline);
+
+        for (Future<?> helper : helpers)
+            try {
+                helper.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+
+        int best = -1;                             //most visited root child
+        if (state.get(0) == EXPANDED)
+            for (int c = firstChild[0]; c < firstChild[0] + childCount[0]; c++)
+                if (best < 0 || visits.get(c) > visits.get(best))
+                    best = c;
+
+        int cell = best >= 0 ? move[best] : rootEmpty[0];
+        int value = best >= 0 && visits.get(best) > 0
+                  ? (int) (50L * score.get(best) / visits.get(best)) : 50;
+
+        return new SearchResult(cell / size, cell % size, value, maxDepth.get(),
+                                visits.get(0), System.nanoTime() - start, false);
+    }
+
+    //Method makes pool big enough for a search of the budget: with a number
+    //of playouts, the most nodes they can add (a playout expands at most one
+    //node, and each depth at most one node per EXPAND playouts); with time,
+    //the nodes the threads add in it at most speed. A pool that a search
+    //filled is doubled. The pool is kept between searches and never shrinks
+    private void sizePool()
+    {
+        long expansions = Math.min(playouts, (long) (playouts / EXPAND + 1) * rootEmptyCount);
+        long wanted = playouts > 0
+                    ? expansions * rootEmptyCount + 1
+                    : Math.max(MIN_POOL, moveTime * NODES_PER_MS * walkers.length);
+        if (full)
+            wanted = Math.max(wanted, 2L * poolSize);
+        full = false;
+
+        wanted = Math.min(wanted, MAX_POOL);
+        if (wanted <= poolSize)
+            return;
+
+        poolSize = (int) wanted;
+        move = new int[poolSize];
+        firstChild = new int[poolSize];
+        childCount = new int[poolSize];
+        visits = new AtomicIntegerArray(poolSize);
+        score = new AtomicIntegerArray(poolSize);
+        state = new AtomicIntegerArray(poolSize);
+    }
+
+    //Method lets a search thread play out until the budget is used up
+    private void run(Walker walker, long deadline)
+    {
+        while (!stopped)
+        {
+            int count = started.getAndIncrement();
+            if (playouts > 0 ? count >= playouts   //check clock now and then
+                             : (count & 63) == 0 && System.nanoTime() - deadline > 0)
+                stopped = true;
+            else
+                walker.playout();
+        }
+    }
+}
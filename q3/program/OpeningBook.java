@@ -0,0 +1,110 @@
+package program;
+import java.io.DataOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.SortedMap;
+
+//Opening book for the tic-tac search: best moves of opening boards with
+//the computer to move, made offline by BookBuilder. The file holds a header
+//and then entries sorted by the zobrist key of the canonical form of a
+//board, each with the best move in that canonical form. The file is
+//mapped into memory and searched in place
+class OpeningBook
+{
+    private static final int MAGIC = 0x54544248;   //"TTBH" marks a book file
+    private static final int HEADER = 16;          //magic, size, plies, count
+    private static final int ENTRY = 10;           //key and move of an entry
+
+    private final MappedByteBuffer buffer;         //mapped book file
+    private final int plies;                       //most symbols on a book board
+    private final int count;                       //number of entries
+
+    //Constructor of OpeningBook class, maps a book file
+    private OpeningBook(MappedByteBuffer buffer)
+    {
+        this.buffer = buffer;
+        this.plies = buffer.getInt(8);
+        this.count = buffer.getInt(12);
+    }
+
+    //Method maps a book file for a board size, returns null if the file
+    //cannot be read or is not a book of that size
+    static OpeningBook load(String fileName, int size)
+    {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ))
+        {
+            if (channel.size() < HEADER)
+                return null;
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != size
+                || channel.size() != HEADER + (long) buffer.getInt(12) * ENTRY)
+                return null;
+
+            return new OpeningBook(buffer);        //mapping stays valid after close
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    //Method writes entries of a board size, sorted by key, to a book file
+    static void write(String fileName, int size, int plies, SortedMap<Long, Integer> entries)
+        throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(
+                 new BufferedOutputStream(new FileOutputStream(fileName))))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(size);
+            out.writeInt(plies);
+            out.writeInt(entries.size());
+
+            for (Map.Entry<Long, Integer> entry : entries.entrySet())
+            {
+                out.writeLong(entry.getKey());
+                out.writeShort(entry.getValue());
+            }
+        }
+    }
+
+    //Method finds best move (in canonical form) of a canonical key by
+    //binary search, returns -1 if the board is not in book
+    int move(long key)
+    {
+        int low = 0;
+        int high = count - 1;
+
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            long found = buffer.getLong(HEADER + middle * ENTRY);
+
+            if (found < key)
+                low = middle + 1;
+            else if (found > key)
+                high = middle - 1;
+            else
+                return buffer.getShort(HEADER + middle * ENTRY + 8);
+        }
+
+        return -1;
+    }
+
+    //Method returns most symbols on a board in book
+    int plies()
+    {
+        return plies;
+    }
+
+    //Method returns number of boards in book
+    int count()
+    {
+        return count;
+    }
+}
@@ -0,0 +1,142 @@
+package program;
+import java.util.Arrays;
+//Score tracker for tic-tac: keeps the score of each symbol, 2 per two in a
+//row plus 3 per three in a row, as scored by the game. The score adds up
+//parts of the rows, the columns, and the diagonals that start in the first
+//column, and each part depends only on its own line. A new symbol changes
+//only the lines through its cell, so only those parts are counted again
+class ScoreTracker
+{
+    private final char[][] cells;                  //symbols on board
+    private final int size;                        //size of board
+    private final char[] symbols;                  //symbols that are scored
+    private final int[][] parts;                   //score of each line per symbol
+    private final int[] totals;                    //score of each symbol
+
+    //Constructor of ScoreTracker class for an empty board
+    ScoreTracker(int size, char empty, char first, char second)
+    {
+        this.size = size;
+        this.cells = new char[size][size];
+        for (char[] row : cells)
+            Arrays.fill(row, empty);
+
+        this.symbols = new char[] { first, second };
+        this.parts = new int[2][4*size];           //rows, columns, left diagonals,
+        this.totals = new int[2];                  //right diagonals
+    }
+
+    //Method puts a symbol in a cell and counts again lines thru the cell.
+    //Other symbol does not score in those lines, so its parts stay the same
+    void place(int i, int j, char symbol)
+    {
+        cells[i][j] = symbol;
+
+        int s = symbol == symbols[0] ? 0 : 1;
+        update(s, i);                              //row i
+        update(s, size + j);                       //column j
+        if (i >= j)                                //left diagonal from (i-j, 0)
+            update(s, 2*size + i - j);
+        if (i + j < size)                          //right diagonal from (i+j, 0)
+            update(s, 3*size + i + j);
+    }
+
+    //Method returns score of a symbol
+    int score(char symbol)
+    {
+        return totals[symbol == symbols[0] ? 0 : 1];
+    }
+
+    //Method counts part of a line again for a symbol
+    private void update(int s, int line)
+    {
+        int part = 2*count(line, symbols[s], 2) + 3*count(line, symbols[s], 3);
+        totals[s] += part - parts[s][line];
+        parts[s][line] = part;
+    }
+
+    //Method counts sequences of a length of a symbol in a line
+    private int count(int line, char symbol, int length)
+    {
+        if (line < size)
+            return countRow(line, symbol, length);
+        else if (line < 2*size)
+            return countColumn(line - size, symbol, length);
+        else if (line < 3*size)
+            return countDiagonal(line - 2*size, symbol, length, true);
+        else
+            return countDiagonal(line - 3*size, symbol, length, false);
+    }
+
+    //Method counts sequences in a row; after a three in a row the next
+    //cell is skipped
+    private int countRow(int row, char symbol, int length)
+    {
+        int count = 0;
+        int consecutive = 0;
+
+        for (int j = 0; j < size; j++)
+        {
+            if (cells[row][j] == symbol)
+            {
+                consecutive++;
+                if (consecutive == length)
+                {
+                    count++;
+                    if (length == 3)
+                        j++;
+                }
+            }
+            else
+                consecutive = 0;
+        }
+
+        return count;
+    }
+
+    //Method counts sequences in a column
+    private int countColumn(int col, char symbol, int length)
+    {
+        int count = 0;
+        int consecutive = 0;
+
+        for (int i = 0; i < size; i++)
+        {
+            if (cells[i][col] == symbol)
+            {
+                consecutive++;
+                if (consecutive == length)
+                    count++;
+            }
+            else
+                consecutive = 0;
+        }
+
+        return count;
+    }
+
+    //Method counts a diagonal from (start, 0) going down to the right (left
+    //diagonal) or up to the right: 1 if it has a sequence, else 0
+    private int countDiagonal(int start, char symbol, int length, boolean leftDiagonal)
+    {
+        int consecutive = 0;
+
+        for (int j = 0; j < size; j++)
+        {
+            int x = start + (leftDiagonal ? j : -j);
+            if (x < 0 || x >= size)
+                continue;
+
+            if (cells[x][j] == symbol)
+            {
+                consecutive++;
+                if (consecutive == length)
+                    return 1;
+            }
+            else
+                consecutive = 0;
+        }
+
+        return 0;
+    }
+}
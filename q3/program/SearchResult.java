@@ -0,0 +1,91 @@
+package program;
+//Result of asking an engine for the best move of a position: the move,
+//its value for the side to move, and statistics of the search
+public class SearchResult
+{
+    private final int row;                         //row of best move
+    private final int column;                      //column of best move
+    private final int value;                       //minmax value for side to move
+    private final int depth;                       //depth of last finished iteration
+    private final long nodes;                      //boards searched
+    private final long nanos;                      //time taken in nanoseconds
+    private final boolean book;                    //move was known without a search
+    private final SearchStats statistics;          //statistics of search, or null
+
+    //Constructor of SearchResult class
+    public SearchResult(int row, int column, int value, int depth, long nodes, long nanos, boolean book)
+    {
+        this(row, column, value, depth, nodes, nanos, book, null);
+    }
+
+    //Constructor of SearchResult class with statistics of the search
+    public SearchResult(int row, int column, int value, int depth, long nodes, long nanos, boolean book,
+                        SearchStats statistics)
+    {
+        this.row = row;
+        this.column = column;
+        this.value = value;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.nanos = nanos;
+        this.book = book;
+        this.statistics = statistics;
+    }
+
+    //Method returns row of best move
+    public int getRow()
+    {
+        return row;
+    }
+
+    //Method returns column of best move
+    public int getColumn()
+    {
+        return column;
+    }
+
+    //Method returns minmax value of best move for side to move
+    public int getValue()
+    {
+        return value;
+    }
+
+    //Method returns depth of last finished iteration, 0 for a known move
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    //Method returns number of boards searched
+    public long getNodes()
+    {
+        return nodes;
+    }
+
+    //Method returns time taken in nanoseconds
+    public long getNanos()
+    {
+        return nanos;
+    }
+
+    //Method checks whether move was known without a search: from opening
+    //book, tablebase, or threats
+    public boolean isBook()
+    {
+        return book;
+    }
+
+    //Method returns statistics of the search, or null if the engine keeps
+    //none or the move was known without a search
+    public SearchStats getStatistics()
+    {
+        return statistics;
+    }
+
+    //Method returns result as text
+    public String toString()
+    {
+        return "move " + row + " " + column + ", value " + value + ", depth " + depth
+             + ", nodes " + nodes + ", " + nanos / 1000000 + " ms" + (book ? ", book" : "");
+    }
+}
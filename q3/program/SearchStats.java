@@ -0,0 +1,161 @@
+package program;
+import java.util.Arrays;
+//Statistics of an alpha-beta search of one move: nodes, leaf evaluations,
+//cutoffs by ply, transposition table use, and time. Each search thread
+//counts in its own object and the objects are added up after the search,
+//so counting is plain increments
+public class SearchStats
+{
+    long nodes;                                    //boards searched
+    long evaluations;                              //leaf boards evaluated
+    long cutoffs;                                  //beta/alpha cutoffs
+    long firstCutoffs;                             //cutoffs caused by first move searched
+    long[] plyCutoffs;                             //cutoffs at each ply
+    long probes;                                   //table probes
+    long hits;                                     //probes that found the board
+    long tableCutoffs;                             //hits that ended search of a board
+    long researches;                               //null window searches searched again
+    long[] depthNodes;                             //nodes of each iteration
+    int depth;                                     //depth of last finished iteration
+    int maxPly;                                    //deepest ply reached
+    long nanos;                                    //time taken in nanoseconds
+
+    //Constructor of SearchStats class for searches of at most plies plies
+    SearchStats(int plies)
+    {
+        this.plyCutoffs = new long[plies + 1];
+        this.depthNodes = new long[plies + 1];
+    }
+
+    //Method sets all counts to zero
+    void reset()
+    {
+        nodes = evaluations = cutoffs = firstCutoffs = probes = hits = tableCutoffs = researches = nanos = 0;
+        depth = maxPly = 0;
+        Arrays.fill(plyCutoffs, 0);
+        Arrays.fill(depthNodes, 0);
+    }
+
+    //Method adds counts of another search thread
+    void add(SearchStats other)
+    {
+        nodes += other.nodes;
+        evaluations += other.evaluations;
+        cutoffs += other.cutoffs;
+        firstCutoffs += other.firstCutoffs;
+        probes += other.probes;
+        hits += other.hits;
+        tableCutoffs += other.tableCutoffs;
+        researches += other.researches;
+        maxPly = Math.max(maxPly, other.maxPly);
+        for (int ply = 0; ply < plyCutoffs.length; ply++)
+            plyCutoffs[ply] += other.plyCutoffs[ply];
+    }
+
+    //Method returns number of boards searched
+    public long getNodes()
+    {
+        return nodes;
+    }
+
+    //Method returns number of leaf boards evaluated
+    public long getEvaluations()
+    {
+        return evaluations;
+    }
+
+    //Method returns number of beta/alpha cutoffs
+    public long getCutoffs()
+    {
+        return cutoffs;
+    }
+
+    //Method returns number of cutoffs caused by the first move searched
+    public long getFirstCutoffs()
+    {
+        return firstCutoffs;
+    }
+
+    //Method returns number of cutoffs at a ply
+    public long getCutoffs(int ply)
+    {
+        return ply < plyCutoffs.length ? plyCutoffs[ply] : 0;
+    }
+
+    //Method returns number of transposition table probes
+    public long getProbes()
+    {
+        return probes;
+    }
+
+    //Method returns number of probes that found the board
+    public long getHits()
+    {
+        return hits;
+    }
+
+    //Method returns number of probes that ended search of a board
+    public long getTableCutoffs()
+    {
+        return tableCutoffs;
+    }
+
+    //Method returns number of null window searches searched again
+    public long getResearches()
+    {
+        return researches;
+    }
+
+    //Method returns depth of last finished iteration
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    //Method returns deepest ply reached
+    public int getMaxPly()
+    {
+        return maxPly;
+    }
+
+    //Method returns time taken in nanoseconds
+    public long getNanos()
+    {
+        return nanos;
+    }
+
+    //Method returns boards searched per second
+    public double getNodesPerSecond()
+    {
+        return nanos == 0 ? 0 : nodes * 1e9 / nanos;
+    }
+
+    //Method returns effective branching factor: nodes of last finished
+    //iteration over nodes of the one before, 0 before two iterations
+    public double getBranchingFactor()
+    {
+        if (depth < 2 || depthNodes[depth - 1] == 0)
+            return 0;
+        return (double) depthNodes[depth] / depthNodes[depth - 1];
+    }
+
+    //Method returns statistics as one line of text
+    public String toString()
+    {
+        StringBuilder line = new StringBuilder();
+        line.append("depth ").append(depth).append(", max ply ").append(maxPly)
+            .append(", nodes ").append(nodes).append(", evaluations ").append(evaluations)
+            .append(String.format(", %.0f nodes/s, branching %.2f", getNodesPerSecond(), getBranchingFactor()))
+            .append(", table probes ").append(probes).append(", hits ").append(hits)
+            .append(", cutoffs ").append(cutoffs).append(" by ply");
+
+        int last = plyCutoffs.length - 1;          //leave out trailing plies
+        while (last > 0 && plyCutoffs[last] == 0)  //without cutoffs
+            last--;
+        for (int ply = 0; ply <= last; ply++)
+            line.append(ply == 0 ? " " : "/").append(plyCutoffs[ply]);
+
+        line.append(", ").append(nanos / 1000000).append(" ms");
+        return line.toString();
+    }
+}
@@ -0,0 +1,44 @@
+package program;
+//Tester program for parallel search: searches the empty 4x4 to 7x7 boards
+//at a fixed depth with one thread and with several threads, and reports
+//the speedup and whether both chose the same move
+public class SpeedupTester
+{
+   private static final int[] DEPTHS = { 0, 0, 0, 0, 12, 8, 7, 6 };   //depth per board size
+
+   //main program for tester, optional argument is number of threads
+   public static void main(String[] args)
+   {
+      int threads = args.length > 0 ? Integer.parseInt(args[0])
+                                    : Runtime.getRuntime().availableProcessors();
+      StringBuilder report = new StringBuilder();
+
+      for (int size = 4; size <= 7; size++)
+      {
+         search(size, 1);                          //warm up
+         long start = System.nanoTime();
+         int single = search(size, 1);
+         long singleTime = System.nanoTime() - start;
+
+         start = System.nanoTime();
+         int parallel = search(size, threads);
+         long parallelTime = System.nanoTime() - start;
+
+         report.append(String.format("%dx%d depth %d: 1 thread %d ms, %d threads %d ms, speedup %.2f, %s%n",
+                       size, size, DEPTHS[size], singleTime / 1000000, threads, parallelTime / 1000000,
+                       (double) singleTime / parallelTime, single == parallel ? "same move" : "different move"));
+      }
+
+      System.out.print(report);
+   }
+
+   //method searches empty board with a number of threads and returns move
+   private static int search(int size, int threads)
+   {
+      AlphaBeta a = new AlphaBeta(size, null, 0);
+      a.setThreads(threads);
+      a.setFixedDepth(DEPTHS[size]);
+      a.setVerbose(false);                         //keep logging out of timed search
+      return a.search();
+   }
+}
@@ -0,0 +1,226 @@
+package program;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+//Tablebase for small tic-tac boards: the exact result of every board that
+//can come up, with X to move, made by TablebaseBuilder. A board with 0 to
+//move is looked up with symbols swapped. A board is indexed by the base 3
+//number of its cells (0 empty, 1 X, 2 0), cell 0 lowest, taking the
+//smallest number of its 8 symmetric boards. Only boards that can come up
+//are stored: the file holds their indexes in ascending order, then one
+//entry byte for each, so a board is found by binary search of its index
+//and its rank there gives its entry. An entry is the result for X in the
+//top 2 bits and plies to end of game in the rest
+class Tablebase
+{
+    static final int UNKNOWN = 0;                  //results: board not in table
+    static final int LOSS = 1;
+    static final int DRAW = 2;
+    static final int WIN = 3;
+
+    static final int MAX_SIZE = 4;                 //largest board size in a table
+
+    private static final int MAGIC = 0x54544232;   //"TTB2" marks a tablebase file
+    private static final int HEADER = 12;          //magic, size, number of boards
+
+    private final MappedByteBuffer buffer;         //mapped tablebase file
+    private final int size;                        //board size of table
+    private final int count;                       //number of boards in table
+    private final int[][] symmetry;                //cell each cell goes to under each symmetry
+    private final int[] power;                     //3 to the power of each cell
+
+    //Constructor of Tablebase class
+    private Tablebase(MappedByteBuffer buffer, int size, int count)
+    {
+        this.buffer = buffer;
+        this.size = size;
+        this.count = count;
+        this.symmetry = AlphaBeta.symmetries(size);
+        this.power = powers(size);
+    }
+
+    //Method maps a tablebase file for a board size, returns null if the
+    //file cannot be read or is not a tablebase of that size
+    static Tablebase load(String fileName, int size)
+    {
+        if (size < 1 || size > MAX_SIZE)
+            return null;
+
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ))
+        {
+            if (channel.size() < HEADER)
+                return null;
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int count = buffer.getInt(8);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != size || count < 0
+                || channel.size() != HEADER + 5L * count)
+                return null;
+
+            return new Tablebase(buffer, size, count);   //mapping stays valid after close
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    //Method writes boards of a board size to a tablebase file: indexes in
+    //ascending order and the entry of each
+    static void write(String fileName, int size, int[] indexes, byte[] entries) throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(
+                 new BufferedOutputStream(new FileOutputStream(fileName))))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(size);
+            out.writeInt(indexes.length);
+            for (int index : indexes)
+                out.writeInt(index);
+            out.write(entries);
+        }
+    }
+
+    //Method finds best move for X in cells (0 empty, 1 X, 2 0), returns the
+    //move or -1 if the board is not in table. Wins are taken as soon as
+    //possible and losses put off as long as possible
+    int bestMove(int[] cells)
+    {
+        int bestCell = -1;
+        int bestRank = -1;
+
+        for (int cell = 0; cell < size*size; cell++)
+            if (cells[cell] == 0)
+            {
+                cells[cell] = 1;                   //board after move, with 0 to move,
+                int entry = read(index(cells, true));       //is looked up swapped
+                cells[cell] = 0;
+
+                if (result(entry) == UNKNOWN)
+                    return -1;
+                int rank = rank(after(entry));
+                if (rank > bestRank)
+                {
+                    bestRank = rank;
+                    bestCell = cell;
+                }
+            }
+
+        return bestCell;
+    }
+
+    //Method returns entry of a board with X to move
+    int lookup(int[] cells)
+    {
+        return read(index(cells, false));
+    }
+
+    //Method reads entry of a board index, UNKNOWN if the board is not in
+    //table
+    private int read(int index)
+    {
+        int low = 0;                               //binary search of
+        int high = count - 1;                      //sorted indexes
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            int found = buffer.getInt(HEADER + 4*middle);
+            if (found < index)
+                low = middle + 1;
+            else if (found > index)
+                high = middle - 1;
+            else
+                return buffer.get(HEADER + 4*count + middle) & 0xFF;
+        }
+
+        return UNKNOWN;
+    }
+
+    //Method finds index of a board: smallest base 3 number of its
+    //symmetric boards, with X and 0 swapped if asked
+    private int index(int[] cells, boolean swap)
+    {
+        return index(cells, swap, symmetry, power);
+    }
+
+    //Method finds index of a board of a size with given symmetries and powers
+    static int index(int[] cells, boolean swap, int[][] symmetry, int[] power)
+    {
+        int best = Integer.MAX_VALUE;
+
+        for (int t = 0; t < 8; t++)
+        {
+            int index = 0;
+            for (int cell = 0; cell < cells.length; cell++)
+            {
+                int digit = cells[cell];
+                if (swap && digit != 0)
+                    digit = 3 - digit;
+                index += digit * power[symmetry[t][cell]];
+            }
+            best = Math.min(best, index);
+        }
+
+        return best;
+    }
+
+    //Method returns 3 to the power of each cell of a board size
+    static int[] powers(int size)
+    {
+        int[] power = new int[size*size];
+        power[0] = 1;
+        for (int cell = 1; cell < size*size; cell++)
+            power[cell] = 3 * power[cell - 1];
+        return power;
+    }
+
+    //Method returns number of boards (indexes) of a board size
+    static int positions(int size)
+    {
+        int[] power = powers(size);
+        return 3 * power[size*size - 1];
+    }
+
+    //Method packs a result and plies to end of game into an entry
+    static int entry(int result, int plies)
+    {
+        return result << 6 | plies;
+    }
+
+    //Method returns result of an entry
+    static int result(int entry)
+    {
+        return entry >>> 6;
+    }
+
+    //Method returns plies to end of game of an entry
+    static int plies(int entry)
+    {
+        return entry & 0x3F;
+    }
+
+    //Method turns entry of a board after a move, for side to move there,
+    //into entry for side that made the move
+    static int after(int entry)
+    {
+        int result = result(entry);
+        return entry(result == WIN ? LOSS : result == LOSS ? WIN : result, plies(entry) + 1);
+    }
+
+    //Method ranks entries for side to move: quick wins best, then draws,
+    //then slow losses
+    static int rank(int entry)
+    {
+        int result = result(entry);
+        if (result == WIN)
+            return 200 - plies(entry);
+        else if (result == DRAW)
+            return 100;
+        else
+            return plies(entry);
+    }
+}
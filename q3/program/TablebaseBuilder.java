@@ -0,0 +1,211 @@
+package program;
+//Builder of tic-tac tablebases by retrograde analysis. Every move adds a
+//symbol, so boards fall into layers by number of symbols. A forward pass
+//from the empty board finds the boards of each layer that can come up,
+//one board of each set of symmetric boards, always with X to move (the
+//board after a move of X is stored with symbols swapped). Then layers are
+//solved from the full board back to the empty board, each board from the
+//already solved boards of the next layer. The builder works on a table of
+//every board index, but only the boards found are written to the file
+//
+//usage: java program.TablebaseBuilder <size> <tablebase file>
+import java.io.IOException;
+import java.util.Arrays;
+public class TablebaseBuilder
+{
+   private static final byte FOUND = 1;            //board reached but not solved yet
+
+   private int size;                               //board size
+   private int[][] symmetry;                       //cell each cell goes to under each symmetry
+   private int[] power;                            //3 to the power of each cell
+   private int[][] lines;                          //cells of each row, column, diagonal
+   private byte[] table;                           //entry of each board index
+   private int[][] layers;                         //board indexes of each layer
+   private int[] layerSizes;                       //number of boards of each layer
+
+   //main program for builder
+   public static void main(String[] args) throws IOException
+   {
+      if (args.length < 2)
+      {
+         System.out.println("usage: java program.TablebaseBuilder <size> <tablebase file>");
+         return;
+      }
+
+      int size = Integer.parseInt(args[0]);
+      if (size < 1 || size > Tablebase.MAX_SIZE)
+      {
+         System.out.println("Board size must be 1 to " + Tablebase.MAX_SIZE);
+         return;
+      }
+
+      long start = System.nanoTime();
+      TablebaseBuilder builder = new TablebaseBuilder(size);
+      builder.reach();
+      builder.solve();
+      builder.write(args[1]);
+
+      int boards = 0;
+      for (int s = 0; s <= size*size; s++)
+         boards += builder.layerSizes[s];
+      int empty = builder.table[0] & 0xFF;
+      String[] results = { "unknown", "loss", "draw", "win" };
+      System.out.printf("%dx%d tablebase: %d boards, empty board is a %s in %d plies for side to move, %.1f s%n",
+                        size, size, boards, results[Tablebase.result(empty)], Tablebase.plies(empty),
+                        (System.nanoTime() - start) / 1e9);
+   }
+
+   //Constructor of TablebaseBuilder class
+   private TablebaseBuilder(int size)
+   {
+      this.size = size;
+      this.symmetry = AlphaBeta.symmetries(size);
+      this.power = Tablebase.powers(size);
+      this.table = new byte[Tablebase.positions(size)];
+      this.layers = new int[size*size + 1][16];
+      this.layerSizes = new int[size*size + 1];
+
+      this.lines = new int[2*size + 2][size];
+      for (int i = 0; i < size; i++)
+         for (int j = 0; j < size; j++)
+         {
+            lines[i][j] = i*size + j;              //row i
+            lines[size + j][i] = i*size + j;       //column j
+         }
+      for (int i = 0; i < size; i++)
+      {
+         lines[2*size][i] = i*size + i;            //left diagonal
+         lines[2*size + 1][i] = i*size + size - 1 - i;   //right diagonal
+      }
+   }
+
+   //method finds boards of each layer that can come up from empty board
+   private void reach()
+   {
+      int[] cells = new int[size*size];
+      table[0] = FOUND;
+      add(0, 0);
+
+      for (int s = 0; s < size*size; s++)
+         for (int k = 0; k < layerSizes[s]; k++)
+         {
+            decode(layers[s][k], cells);
+            if (over(cells))                       //game ended: no moves
+               continue;
+
+            for (int cell = 0; cell < size*size; cell++)
+               if (cells[cell] == 0)
+               {
+                  cells[cell] = 1;
+                  int child = Tablebase.index(cells, true, symmetry, power);
+                  cells[cell] = 0;
+
+                  if (table[child] == 0)
+                  {
+                     table[child] = FOUND;
+                     add(s + 1, child);
+                  }
+               }
+         }
+   }
+
+   //method solves layers from last to first
+   private void solve()
+   {
+      int[] cells = new int[size*size];
+
+      for (int s = size*size; s >= 0; s--)
+         for (int k = 0; k < layerSizes[s]; k++)
+         {
+            int index = layers[s][k];
+            decode(index, cells);
+
+            int entry;
+            if (wins(cells, 2))                    //0 made a line: X lost
+               entry = Tablebase.entry(Tablebase.LOSS, 0);
+            else if (s == size*size)               //full board: draw
+               entry = Tablebase.entry(Tablebase.DRAW, 0);
+            else
+            {
+               entry = -1;                         //best move of X
+               for (int cell = 0; cell < size*size; cell++)
+                  if (cells[cell] == 0)
+                  {
+                     cells[cell] = 1;
+                     int child = Tablebase.index(cells, true, symmetry, power);
+                     cells[cell] = 0;
+
+                     int value = Tablebase.after(table[child] & 0xFF);
+                     if (entry < 0 || Tablebase.rank(value) > Tablebase.rank(entry))
+                        entry = value;
+                  }
+            }
+
+            table[index] = (byte) entry;
+         }
+   }
+
+   //method writes boards found, in order of index, to a tablebase file
+   private void write(String fileName) throws IOException
+   {
+      int boards = 0;
+      for (int s = 0; s <= size*size; s++)
+         boards += layerSizes[s];
+
+      int[] indexes = new int[boards];
+      int count = 0;
+      for (int s = 0; s <= size*size; s++)
+         for (int k = 0; k < layerSizes[s]; k++)
+            indexes[count++] = layers[s][k];
+      Arrays.sort(indexes);
+
+      byte[] entries = new byte[boards];
+      for (int k = 0; k < boards; k++)
+         entries[k] = table[indexes[k]];
+
+      Tablebase.write(fileName, size, indexes, entries);
+   }
+
+   //method checks whether game on a board is over
+   private boolean over(int[] cells)
+   {
+      for (int cell = 0; cell < size*size; cell++)
+         if (cells[cell] == 0)
+            return wins(cells, 2);
+
+      return true;
+   }
+
+   //method checks whether a symbol (1 X, 2 0) fills a line
+   private boolean wins(int[] cells, int digit)
+   {
+      for (int[] line : lines)
+      {
+         boolean full = true;
+         for (int cell : line)
+            full &= cells[cell] == digit;
+         if (full)
+            return true;
+      }
+
+      return false;
+   }
+
+   //method turns a board index into cells
+   private void decode(int index, int[] cells)
+   {
+      for (int cell = 0; cell < size*size; cell++)
+      {
+         cells[cell] = index % 3;
+         index /= 3;
+      }
+   }
+
+   //method adds a board index to a layer
+   private void add(int layer, int index)
+   {
+      if (layerSizes[layer] == layers[layer].length)
+         layers[layer] = Arrays.copyOf(layers[layer], 2 * layers[layer].length);
+      layers[layer][layerSizes[layer]++] = index;
+   }
+}
@@ -0,0 +1,120 @@
+package program;
+import java.util.Arrays;
+
+//Transposition table for the tic-tac search. Entries are kept in
+//fixed-size buckets; a new entry replaces the same position or else the
+//entry with the smallest search depth in its bucket.
+//The table is shared by search threads without locks: each slot keeps its
+//key xor its data, so a slot torn by two threads writing at once no
+//longer matches its key and is treated as empty
+class TranspositionTable
+{
+    static final int EXACT = 0;                    //value is exact
+    static final int LOWER = 1;                    //value is a lower bound
+    static final int UPPER = 2;                    //value is an upper bound
+
+    static final int MAX_DEPTH = 254;              //deepest search depth stored
+
+    private static final int BUCKET = 4;           //entries per bucket
+
+    private final long[] keys;                     //zobrist key xor data of each entry
+    private final long[] data;                     //packed depth, bound, value, move
+    private final int buckets;                     //number of buckets (power of 2)
+
+    //Constructor of TranspositionTable class, size is number of entries
+    TranspositionTable(int size)
+    {
+        int n = Integer.highestOneBit(Math.max(size, BUCKET));
+        keys = new long[n];
+        data = new long[n];
+        buckets = n / BUCKET;
+    }
+
+    //Method finds entry of a position, returns 0 if there is none
+    long probe(long key)
+    {
+        int first = bucket(key);
+
+        for (int i = first; i < first + BUCKET; i++)
+        {
+            long entry = data[i];                  //read slot once
+            if (entry != 0 && (keys[i] ^ entry) == key)
+                return entry;
+        }
+
+        return 0;
+    }
+
+    //Method stores result of searching a position to a depth. Depths past
+    //MAX_DEPTH do not fit an entry and are not stored: a wrapped depth
+    //would make the entry look shallower or deeper than it is
+    void store(long key, int depth, int bound, int value, int move)
+    {
+        if (depth < 0 || depth > MAX_DEPTH)
+            return;
+
+        int first = bucket(key);
+        int slot = first;
+
+        for (int i = first; i < first + BUCKET; i++)
+        {
+            if (data[i] != 0 && (keys[i] ^ data[i]) == key)
+            {                                      //same position: always replace
+                slot = i;
+                break;
+            }
+
+            if (depth(data[i]) < depth(data[slot]))
+                slot = i;                          //otherwise replace shallowest
+        }
+
+        long entry = pack(depth, bound, value, move);
+        keys[slot] = key ^ entry;
+        data[slot] = entry;
+    }
+
+    //Method empties table
+    void clear()
+    {
+        Arrays.fill(data, 0);
+    }
+
+    //Method returns search depth of an entry, -1 for an empty slot
+    static int depth(long entry)
+    {
+        return (int) (entry >>> 32 & 0xFF) - 1;
+    }
+
+    //Method returns bound type of an entry
+    static int bound(long entry)
+    {
+        return (int) (entry >>> 40 & 0x3);
+    }
+
+    //Method returns value of an entry
+    static int value(long entry)
+    {
+        return (int) entry;
+    }
+
+    //Method returns best move (cell index) of an entry, -1 if none
+    static int move(long entry)
+    {
+        return (int) (entry >>> 42 & 0xFFFF) - 1;
+    }
+
+    //Method packs an entry into a long; a stored entry is never 0
+    private static long pack(int depth, int bound, int value, int move)
+    {
+        return (value & 0xFFFFFFFFL)
+             | (long) (depth + 1) << 32
+             | (long) bound << 40
+             | (long) (move + 1) << 42;
+    }
+
+    //Method finds first slot of bucket of a key
+    private int bucket(long key)
+    {
+        return (int) ((key ^ key >>> 32) & (buckets - 1)) * BUCKET;
+    }
+}